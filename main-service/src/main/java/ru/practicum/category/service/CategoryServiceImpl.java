@@ -11,6 +11,7 @@ import ru.practicum.category.dto.NewCategoryDto;
 import ru.practicum.category.mapper.CategoryMapper;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.compilation.service.CompilationCache;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.exception.ConstraintViolationException;
 import ru.practicum.exception.NotFoundException;
@@ -25,6 +26,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
 
     @Override
     @Transactional
@@ -37,6 +39,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional
     public void deleteCategory(Long catId) {
         Category category = getCatById(catId);
         if (eventRepository.countByCategory_Id(catId) == 0) {
@@ -51,15 +54,19 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional
     public CategoryDto updateCategory(NewCategoryDto newCategoryDto, Long catId) {
-        Category oldCategory = getCatById(catId);
-        Category newCategory = CategoryMapper.toCategoryFromNewCategory(newCategoryDto);
+        Category category = getCatById(catId);
 
-        if (oldCategory.getName().equals(newCategoryDto.getName())) {
-            return CategoryMapper.toCategoryDto(oldCategory);
+        if (category.getName().equals(newCategoryDto.getName())) {
+            return CategoryMapper.toCategoryDto(category);
         } else {
             checkCatByName(newCategoryDto.getName(), "Категория с именем " + newCategoryDto.getName()
                     + " уже существует в системе. Исправление недопустимо.");
-            return CategoryMapper.toCategoryDto(categoryRepository.save(newCategory));
+            // Изменение загруженной сущности обновляет и запись в кэше второго уровня
+            category.setName(newCategoryDto.getName());
+            Category savedCategory = categoryRepository.save(category);
+            // Категория входит в события закэшированных подборок
+            compilationCache.invalidate();
+            return CategoryMapper.toCategoryDto(savedCategory);
         }
     }
 
@@ -1,5 +1,6 @@
 package ru.practicum.comments.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,9 +8,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.comments.dto.CommentDto;
+import ru.practicum.comments.dto.CommentShortDto;
 import ru.practicum.comments.dto.LikeDto;
 import ru.practicum.comments.dto.NewCommentDto;
 import ru.practicum.comments.dto.UpdateCommentDto;
+import ru.practicum.comments.model.CommentPage;
 import ru.practicum.comments.model.StateComment;
 import ru.practicum.comments.service.CommentService;
 
@@ -21,6 +24,8 @@ import java.util.List;
 @Validated
 public class CommentControllerPrivate {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CommentService commentService;
 
     // Добавление комментария
@@ -79,12 +84,18 @@ public class CommentControllerPrivate {
 
     // Получить все опубликованные комментарии пользователя
     @GetMapping("/users/{userId}/comments")
-    public List<CommentDto> getCommentByAuthor(@PathVariable Long userId,
+    public List<CommentShortDto> getCommentByAuthor(@PathVariable Long userId,
                                                @RequestParam(name = "from", defaultValue = "0", required = false) Integer from,
                                                @RequestParam(name = "size", defaultValue = "10", required = false) Integer size,
-                                               @RequestParam(name = "sortMode", defaultValue = "CREATE", required = false) String sortMode) {
+                                               @RequestParam(name = "sortMode", defaultValue = "CREATE", required = false) String sortMode,
+                                               @RequestParam(name = "cursor", required = false) String cursor,
+                                               HttpServletResponse response) {
         log.info("Получен запрос GET:/users/{}/comments", userId);
-        return commentService.getCommentByAuthor(userId, from, size, sortMode);
+        CommentPage<CommentShortDto> comments = commentService.getCommentByAuthor(userId, from, size, sortMode, cursor);
+        if (comments.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, comments.getNextCursor());
+        }
+        return comments.getComments();
     }
 
 }
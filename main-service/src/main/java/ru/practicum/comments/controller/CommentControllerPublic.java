@@ -1,5 +1,6 @@
 package ru.practicum.comments.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,6 +8,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.comments.dto.CommentDto;
+import ru.practicum.comments.dto.CommentShortDto;
+import ru.practicum.comments.model.CommentPage;
 import ru.practicum.comments.service.CommentService;
 
 import java.util.List;
@@ -16,6 +19,8 @@ import java.util.List;
 @Slf4j
 public class CommentControllerPublic {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CommentService commentService;
 
     // Получить комментарий по Id
@@ -27,12 +32,18 @@ public class CommentControllerPublic {
 
     // Получить все опубликованные комментарии по событию
     @GetMapping("/comments/events/{eventId}")
-    public List<CommentDto> getCommentByEvent(@PathVariable Long eventId,
+    public List<CommentShortDto> getCommentByEvent(@PathVariable Long eventId,
                                               @RequestParam(name = "from", defaultValue = "0", required = false) Integer from,
                                               @RequestParam(name = "size", defaultValue = "10", required = false) Integer size,
-                                              @RequestParam(name = "sortMode", defaultValue = "CREATE", required = false) String sortMode) {
+                                              @RequestParam(name = "sortMode", defaultValue = "CREATE", required = false) String sortMode,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
+                                              HttpServletResponse response) {
         log.info("Получен запрос GET:/comments/events/{}.", eventId);
-        return commentService.getCommentByEvent(eventId, from, size, sortMode);
+        CommentPage<CommentShortDto> comments = commentService.getCommentByEvent(eventId, from, size, sortMode, cursor);
+        if (comments.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, comments.getNextCursor());
+        }
+        return comments.getComments();
     }
 
 }
@@ -0,0 +1,35 @@
+package ru.practicum.comments.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.comments.model.StateComment;
+import ru.practicum.user.dto.UserShortDto;
+
+import java.time.LocalDateTime;
+
+// Комментарий в ленте: вместо события передаётся только его id
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentShortDto {
+
+    private Long id;
+
+    private Long event;
+
+    private UserShortDto author;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime created;
+
+    private String text;
+
+    private StateComment state;
+
+    private Long likes;
+
+    private Long dislikes;
+
+}
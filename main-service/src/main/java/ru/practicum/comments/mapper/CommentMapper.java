@@ -1,6 +1,7 @@
 package ru.practicum.comments.mapper;
 
 import ru.practicum.comments.dto.CommentDto;
+import ru.practicum.comments.dto.CommentShortDto;
 import ru.practicum.comments.dto.NewCommentDto;
 import ru.practicum.comments.dto.UpdateCommentDto;
 import ru.practicum.comments.model.Comment;
@@ -41,6 +42,19 @@ public final class CommentMapper {
         return commentDto;
     }
 
+    public static CommentShortDto toCommentShortDto(Comment comment) {
+        CommentShortDto commentShortDto = new CommentShortDto();
+        commentShortDto.setId(comment.getId());
+        commentShortDto.setEvent(comment.getEvent().getId());
+        commentShortDto.setAuthor(UserMapper.toUserShortDto(comment.getAuthor()));
+        commentShortDto.setCreated(comment.getCreated());
+        commentShortDto.setText(comment.getText());
+        commentShortDto.setState(comment.getState());
+        commentShortDto.setLikes(comment.getLikes());
+        commentShortDto.setDislikes(comment.getDislikes());
+        return commentShortDto;
+    }
+
     public static Comment toCommentFromUpdate(UpdateCommentDto updateComment, Comment comment) {
 
         if (updateComment.hasText()) {
@@ -23,7 +23,8 @@ public class Comment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Событие загружается только при построении полного CommentDto, лентам достаточно id
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event")
     private Event event;
 
@@ -42,10 +43,12 @@ public class Comment {
     @Enumerated(EnumType.STRING)
     private StateComment state;
 
-    @Column(name = "likes")
+    // Счётчики реакций меняются только приращением в базе (CommentRepository.addReactions),
+    // сохранение комментария значения не перезаписывает
+    @Column(name = "likes", updatable = false)
     private Long likes;
 
-    @Column(name = "dislikes")
+    @Column(name = "dislikes", updatable = false)
     private Long dislikes;
 
 }
@@ -0,0 +1,82 @@
+package ru.practicum.comments.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.exception.ParameterNotValidException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Курсор ленты комментариев: значение ключа сортировки и id последнего комментария страницы.
+// Следующая страница начинается сразу после этой пары по индексу, поэтому её стоимость не зависит от глубины.
+@Getter
+@RequiredArgsConstructor
+public class CommentCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final Key key;
+    private final String value;
+    private final Long id;
+
+    // Ключ сортировки, к которому привязан курсор
+    public enum Key {
+        ID, CREATE, LIKES;
+
+        public static Key of(String sortMode) {
+            if (sortMode == null) {
+                return ID;
+            }
+            return switch (sortMode) {
+                case "CREATE" -> CREATE;
+                case "LIKES" -> LIKES;
+                default -> ID;
+            };
+        }
+    }
+
+    public static CommentCursor after(Key key, Comment comment) {
+        String value = switch (key) {
+            case ID -> "";
+            case CREATE -> comment.getCreated().toString();
+            case LIKES -> String.valueOf(comment.getLikes());
+        };
+        return new CommentCursor(key, value, comment.getId());
+    }
+
+    public LocalDateTime getCreated() {
+        return LocalDateTime.parse(value);
+    }
+
+    public long getLikes() {
+        return Long.parseLong(value);
+    }
+
+    public String encode() {
+        String cursor = key + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CommentCursor decode(String cursor, Key expectedKey) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            CommentCursor commentCursor = new CommentCursor(Key.valueOf(parts[0]), parts[1], Long.parseLong(parts[2]));
+            if (commentCursor.getKey() != expectedKey) {
+                throw new ParameterNotValidException("cursor", "Курсор получен для другого режима сортировки.");
+            }
+            if (expectedKey == Key.CREATE) {
+                commentCursor.getCreated();
+            } else if (expectedKey == Key.LIKES) {
+                commentCursor.getLikes();
+            }
+            return commentCursor;
+        } catch (ParameterNotValidException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ParameterNotValidException("cursor", "Некорректный курсор постраничного вывода.");
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package ru.practicum.comments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Страница комментариев и курсор следующей страницы (null, если страница последняя)
+@Getter
+@AllArgsConstructor
+public class CommentPage<T> {
+
+    private List<T> comments;
+    private String nextCursor;
+
+}
@@ -1,11 +1,30 @@
 package ru.practicum.comments.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.comments.model.CommentLike;
 
 
 public interface CommentLikeRepository extends JpaRepository<CommentLike, Long> {
 
-    CommentLike findByComment_IdAndUser_Id(Long commentId, Long userId);
+    // Добавляет запись реакций пользователя, если её ещё нет; параллельную вставку отклоняет уникальный индекс
+    @Modifying
+    @Query(value = "INSERT INTO likes (comment_id, user_id, likes, dislike) " +
+                   "SELECT :commentId, :userId, :like, :dislike " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE comment_id = :commentId AND user_id = :userId)",
+            nativeQuery = true)
+    int insertIfAbsent(Long commentId, Long userId, boolean like, boolean dislike);
+
+    // Ставит лайк, если пользователь ещё не ставил его; возвращает 1, если реакция добавлена
+    @Modifying
+    @Query("UPDATE CommentLike l SET l.likes = true " +
+           "WHERE l.comment.id = :commentId AND l.user.id = :userId AND (l.likes IS NULL OR l.likes = false)")
+    int setLike(Long commentId, Long userId);
+
+    @Modifying
+    @Query("UPDATE CommentLike l SET l.dislike = true " +
+           "WHERE l.comment.id = :commentId AND l.user.id = :userId AND (l.dislike IS NULL OR l.dislike = false)")
+    int setDislike(Long commentId, Long userId);
 
 }
@@ -1,7 +1,11 @@
 package ru.practicum.comments.repository;
 
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.comments.model.Comment;
 
 import java.util.List;
@@ -9,9 +13,16 @@ import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByEvent_Id(Long eventId, PageRequest page);
-
-    List<Comment> findByAuthor_Id(Long userId, PageRequest page);
+    // Для ленты автор загружается в том же запросе, событие не загружается
+    @EntityGraph(attributePaths = {"author"})
+    List<Comment> findAll(Specification<Comment> specification, Pageable paging);
 
     Optional<Comment> findByIdAndAuthor_Id(Long commentId, Long userId);
+
+    // Приращение счётчиков реакций в базе без чтения комментария
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Comment c SET c.likes = COALESCE(c.likes, 0) + :likes, " +
+           "c.dislikes = COALESCE(c.dislikes, 0) + :dislikes WHERE c.id = :commentId")
+    int addReactions(Long commentId, long likes, long dislikes);
+
 }
@@ -0,0 +1,42 @@
+package ru.practicum.comments.repository;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.comments.model.Comment;
+import ru.practicum.comments.model.CommentCursor;
+import ru.practicum.comments.model.StateComment;
+
+public final class CommentSpecifications {
+
+    // комментарии события
+    public static Specification<Comment> byEvent(final Long eventId) {
+        return (comment, query, criteriaBuilder) -> criteriaBuilder.equal(comment.get("event").get("id"), eventId);
+    }
+
+    // комментарии автора
+    public static Specification<Comment> byAuthor(final Long userId) {
+        return (comment, query, criteriaBuilder) -> criteriaBuilder.equal(comment.get("author").get("id"), userId);
+    }
+
+    // только комментарии в заданном состоянии
+    public static Specification<Comment> inState(final StateComment state) {
+        return (comment, query, criteriaBuilder) -> criteriaBuilder.equal(comment.get("state"), state);
+    }
+
+    // комментарии после курсора в порядке сортировки ленты
+    public static Specification<Comment> afterCursor(final CommentCursor cursor) {
+        return (comment, query, criteriaBuilder) -> {
+            Predicate afterId = criteriaBuilder.greaterThan(comment.get("id"), cursor.getId());
+            return switch (cursor.getKey()) {
+                case ID -> afterId;
+                case CREATE -> criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(comment.get("created"), cursor.getCreated()),
+                        criteriaBuilder.and(criteriaBuilder.equal(comment.get("created"), cursor.getCreated()), afterId));
+                case LIKES -> criteriaBuilder.or(
+                        criteriaBuilder.lessThan(comment.get("likes"), cursor.getLikes()),
+                        criteriaBuilder.and(criteriaBuilder.equal(comment.get("likes"), cursor.getLikes()), afterId));
+            };
+        };
+    }
+
+}
@@ -1,13 +1,13 @@
 package ru.practicum.comments.service;
 
 import ru.practicum.comments.dto.CommentDto;
+import ru.practicum.comments.dto.CommentShortDto;
 import ru.practicum.comments.dto.LikeDto;
 import ru.practicum.comments.dto.NewCommentDto;
 import ru.practicum.comments.dto.UpdateCommentDto;
+import ru.practicum.comments.model.CommentPage;
 import ru.practicum.comments.model.StateComment;
 
-import java.util.List;
-
 public interface CommentService {
 
     // Добавление комментария
@@ -32,10 +32,10 @@ public interface CommentService {
     CommentDto getCommentById(Long commentId);
 
     // Получить все опубликованные комментарии по событию
-    List<CommentDto> getCommentByEvent(Long event, int from, int size, String sortMode);
+    CommentPage<CommentShortDto> getCommentByEvent(Long event, int from, int size, String sortMode, String cursor);
 
     // Получить все опубликованные комментарии пользователя
-    List<CommentDto> getCommentByAuthor(Long userId, int from, int size, String sortMode);
+    CommentPage<CommentShortDto> getCommentByAuthor(Long userId, int from, int size, String sortMode, String cursor);
 
 
 }
@@ -2,19 +2,26 @@ package ru.practicum.comments.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.comments.dto.CommentDto;
+import ru.practicum.comments.dto.CommentShortDto;
 import ru.practicum.comments.dto.LikeDto;
 import ru.practicum.comments.dto.NewCommentDto;
 import ru.practicum.comments.dto.UpdateCommentDto;
 import ru.practicum.comments.mapper.CommentMapper;
 import ru.practicum.comments.model.Comment;
-import ru.practicum.comments.model.CommentLike;
+import ru.practicum.comments.model.CommentCursor;
+import ru.practicum.comments.model.CommentPage;
 import ru.practicum.comments.model.StateComment;
 import ru.practicum.comments.repository.CommentLikeRepository;
 import ru.practicum.comments.repository.CommentRepository;
+import ru.practicum.comments.repository.CommentSpecifications;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.exception.DataConflictException;
@@ -35,6 +42,7 @@ public class CommentServiceImpl implements CommentService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final CommentLikeRepository likeRepository;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public CommentDto addComment(Long userId, NewCommentDto newCommentDto) {
@@ -87,52 +95,39 @@ public class CommentServiceImpl implements CommentService {
     @Override
     public CommentDto likeComment(Long userId, Long commentId, LikeDto likeDto) {
 
-        User user = getUser(userId); // Лайки ставит, только зарегистрированный пользователь
-
-        Comment comment = getComment(commentId);
-        Long like = comment.getLikes();
-        Long dislike = comment.getDislikes();
-
-        CommentLike commentLike = likeRepository.findByComment_IdAndUser_Id(commentId, userId);
-
-        if (commentLike == null) {
-            commentLike = new CommentLike();
-            if (likeDto.getLike() != null && likeDto.getLike()) {
-                like++;
-                commentLike.setLikes(true);
-            }
-
-            if (likeDto.getDislike() != null && likeDto.getDislike()) {
-                dislike++;
-                commentLike.setDislike(true);
-            }
-
-            comment.setLikes(like);
-            comment.setDislikes(dislike);
+        getUser(userId); // Лайки ставит, только зарегистрированный пользователь
+        if (!commentRepository.existsById(commentId)) {
+            throw new NotFoundException("Комментарий с id " + commentId + " не найден в системе.");
+        }
 
-            commentLike.setUser(user);
-            commentLike.setComment(comment);
+        boolean like = likeDto.getLike() != null && likeDto.getLike();
+        boolean dislike = likeDto.getDislike() != null && likeDto.getDislike();
+        try {
+            transactionTemplate.executeWithoutResult(status -> addReactions(userId, commentId, like, dislike));
+        } catch (DataIntegrityViolationException e) {
+            // Первую реакцию пользователя параллельно вставил другой запрос, теперь запись есть и реакции обновляются
+            transactionTemplate.executeWithoutResult(status -> addReactions(userId, commentId, like, dislike));
+        }
 
-            likeRepository.save(commentLike);
+        return CommentMapper.toCommentDto(getComment(commentId));
+    }
 
+    // Каждая реакция пользователя учитывается один раз: счётчики комментария увеличиваются в базе
+    // только на реакции, которые действительно добавлены в запись пользователя
+    private void addReactions(Long userId, Long commentId, boolean like, boolean dislike) {
+        long likes;
+        long dislikes;
+        if (likeRepository.insertIfAbsent(commentId, userId, like, dislike) > 0) {
+            likes = like ? 1 : 0;
+            dislikes = dislike ? 1 : 0;
         } else {
-            if (likeDto.getLike() != null && likeDto.getLike() && commentLike.getLikes() != null
-                && !commentLike.getLikes()) {
-                like++;
-                commentLike.setLikes(true);
-            }
-            if (likeDto.getDislike() != null && likeDto.getDislike() && commentLike.getDislike() != null
-                && !commentLike.getDislike()) {
-                dislike++;
-                commentLike.setDislike(true);
-            }
-
-            comment.setLikes(like);
-            comment.setDislikes(dislike);
-            likeRepository.save(commentLike);
+            likes = like ? likeRepository.setLike(commentId, userId) : 0;
+            dislikes = dislike ? likeRepository.setDislike(commentId, userId) : 0;
         }
 
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        if (likes > 0 || dislikes > 0) {
+            commentRepository.addReactions(commentId, likes, dislikes);
+        }
     }
 
     @Override
@@ -150,37 +145,41 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    public List<CommentDto> getCommentByEvent(Long eventId, int from, int size, String sortMode) {
-
-        Sort sort = Sort.unsorted();
-        switch (sortMode) {
-            case "CREATE" -> Sort.by("created");
-            case "LIKES" -> Sort.by("likes");
-            default -> Sort.by("id");
-        }
-        PageRequest page = PageRequest.of(from, size, sort.ascending());
-
-        return commentRepository.findByEvent_Id(eventId, page)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CommentPage<CommentShortDto> getCommentByEvent(Long eventId, int from, int size, String sortMode, String cursor) {
+        return getPublishedComments(CommentSpecifications.byEvent(eventId), from, size, sortMode, cursor);
     }
 
     @Override
-    public List<CommentDto> getCommentByAuthor(Long userId, int from, int size, String sortMode) {
+    @Transactional(readOnly = true)
+    public CommentPage<CommentShortDto> getCommentByAuthor(Long userId, int from, int size, String sortMode, String cursor) {
+        return getPublishedComments(CommentSpecifications.byAuthor(userId), from, size, sortMode, cursor);
+    }
 
-        Sort sort = Sort.unsorted();
-        switch (sortMode) {
-            case "CREATE" -> Sort.by("created");
-            case "LIKES" -> Sort.by("likes");
-            default -> Sort.by("id");
+    // Лента опубликованных комментариев. Порядок однозначен за счёт id в конце сортировки
+    // и совпадает с индексами (event, created, id), (event, likes, id) и (author, created, id)
+    private CommentPage<CommentShortDto> getPublishedComments(Specification<Comment> owner, int from, int size,
+                                                              String sortMode, String cursor) {
+        CommentCursor.Key key = CommentCursor.Key.of(sortMode);
+        Sort sort = switch (key) {
+            case CREATE -> Sort.by(Sort.Direction.ASC, "created").and(Sort.by("id"));
+            case LIKES -> Sort.by(Sort.Direction.DESC, "likes").and(Sort.by("id"));
+            case ID -> Sort.by("id");
+        };
+
+        Specification<Comment> specification = owner.and(CommentSpecifications.inState(StateComment.PUBLISHED));
+        PageRequest page = PageRequest.of(from / size, size, sort);
+        // Со следующей страницы по курсору выборка начинается сразу после последнего комментария предыдущей страницы
+        if (cursor != null) {
+            specification = specification.and(CommentSpecifications.afterCursor(CommentCursor.decode(cursor, key)));
+            page = PageRequest.of(0, size, sort);
         }
-        PageRequest page = PageRequest.of(from, size, sort.ascending());
 
-        return commentRepository.findByAuthor_Id(userId, page)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
+        List<Comment> comments = commentRepository.findAll(specification, page);
+        String nextCursor = comments.size() == size ? CommentCursor.after(key, comments.getLast()).encode() : null;
+        return new CommentPage<>(comments.stream()
+                .map(CommentMapper::toCommentShortDto)
+                .collect(Collectors.toList()), nextCursor);
     }
 
     private User getUser(Long userId) {
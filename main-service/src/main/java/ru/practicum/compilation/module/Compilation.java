@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import ru.practicum.event.model.Event;
 
 import java.util.List;
@@ -21,6 +22,8 @@ public class Compilation {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // События страницы подборок загружаются одним запросом на пачку подборок
+    @BatchSize(size = 50)
     @ManyToMany(cascade = CascadeType.ALL)
     @JoinTable(
             name = "compilation_events",
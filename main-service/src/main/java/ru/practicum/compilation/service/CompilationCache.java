@@ -0,0 +1,83 @@
+package ru.practicum.compilation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.compilation.dto.CompilationDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Готовые списки подборок для публичного GET /compilations, по ключу (pinned, from, size).
+// Подборки меняются редко, поэтому кэш сбрасывается целиком после коммита изменений подборок,
+// входящих в них событий и категорий. Количество подтверждённых заявок и просмотров кэш не сбрасывает:
+// их устаревание ограничено сроком жизни записей compilations.cache.ttl-ms.
+@Component
+public class CompilationCache {
+
+    private final Cache<Key, List<CompilationDto>> cache;
+    private final TransactionTemplate readTransaction;
+    // Номер сброса: список, загрузка которого началась до сброса, в кэш не попадает
+    private final AtomicLong generation = new AtomicLong();
+
+    public CompilationCache(@Value("${compilations.cache.ttl-ms:60000}") long ttlMs,
+                            @Value("${compilations.cache.max-size:1000}") long maxSize,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager) {
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "compilations");
+    }
+
+    // Загрузка выполняется в транзакции только чтения и только при промахе кэша
+    public List<CompilationDto> get(Boolean pinned, int from, int size, Supplier<List<CompilationDto>> loader) {
+        Key key = new Key(pinned, from, size);
+        List<CompilationDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        List<CompilationDto> compilations = readTransaction.execute(status -> loader.get());
+        if (compilations != null) {
+            cache.asMap().compute(key, (k, current) -> generation.get() == loadGeneration ? compilations : current);
+        }
+        return compilations;
+    }
+
+    // Сброс после коммита, чтобы параллельное чтение не закэшировало данные до фиксации изменений
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll();
+                }
+            });
+        } else {
+            invalidateAll();
+        }
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private record Key(Boolean pinned, int from, int size) {
+    }
+
+}
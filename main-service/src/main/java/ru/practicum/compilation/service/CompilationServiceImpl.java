@@ -11,11 +11,14 @@ import ru.practicum.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.compilation.mapper.CompilationMapper;
 import ru.practicum.compilation.module.Compilation;
 import ru.practicum.compilation.repository.CompilationRepository;
+import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.repository.EventRepository;
+import ru.practicum.event.service.ConfirmedRequestsService;
 import ru.practicum.exception.NotFoundException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +27,8 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
+    private final ConfirmedRequestsService confirmedRequestsService;
 
     @Override
     @Transactional
@@ -35,7 +40,9 @@ public class CompilationServiceImpl implements CompilationService {
             compilation.setEvents(events);
         }
 
-        return CompilationMapper.toCompilationDto(compilationRepository.save(compilation));
+        Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationCache.invalidate();
+        return CompilationMapper.toCompilationDto(savedCompilation);
     }
 
     @Override
@@ -43,6 +50,7 @@ public class CompilationServiceImpl implements CompilationService {
     public void deleteCompilation(Long compId) {
         Compilation compilation = getCompilation(compId);
         compilationRepository.delete(compilation);
+        compilationCache.invalidate();
     }
 
     @Override
@@ -56,30 +64,47 @@ public class CompilationServiceImpl implements CompilationService {
             newCompilation.setEvents(events);
         }
 
-        return CompilationMapper.toCompilationDto(compilationRepository.save(newCompilation));
+        Compilation savedCompilation = compilationRepository.save(newCompilation);
+        compilationCache.invalidate();
+        return CompilationMapper.toCompilationDto(savedCompilation);
     }
 
 
+    // Транзакция открывается загрузчиком кэша только при промахе
     @Override
     public List<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
+        return compilationCache.get(pinned, from, size, () -> findCompilations(pinned, from, size));
+    }
+
+    private List<CompilationDto> findCompilations(Boolean pinned, int from, int size) {
         PageRequest page = PageRequest.of(from, size, Sort.by("id").ascending());
 
-        if (pinned != null) {
-            return compilationRepository.getCompilationsByPinned(pinned, page)
-                    .stream()
-                    .map(CompilationMapper::toCompilationDto)
-                    .collect(Collectors.toList());
-        } else {
-            return compilationRepository.findAll(page)
-                    .stream()
-                    .map(CompilationMapper::toCompilationDto)
-                    .collect(Collectors.toList());
-        }
+        List<Compilation> compilations = pinned != null
+                ? compilationRepository.getCompilationsByPinned(pinned, page)
+                : compilationRepository.findAll(page).getContent();
+        List<CompilationDto> results = compilations.stream()
+                .map(CompilationMapper::toCompilationDto)
+                .collect(Collectors.toList());
+        setConfirmedRequests(results);
+        return results;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CompilationDto getCompilationById(Long compId) {
-        return CompilationMapper.toCompilationDto(getCompilation(compId));
+        CompilationDto compilationDto = CompilationMapper.toCompilationDto(getCompilation(compId));
+        setConfirmedRequests(List.of(compilationDto));
+        return compilationDto;
+    }
+
+    // Количество подтверждённых заявок для событий всех подборок одним запросом
+    private void setConfirmedRequests(List<CompilationDto> compilations) {
+        List<EventShortDto> events = compilations.stream()
+                .flatMap(compilation -> compilation.getEvents().stream())
+                .toList();
+        Map<Long, Integer> confirmed = confirmedRequestsService.getConfirmedRequests(
+                events.stream().map(EventShortDto::getId).distinct().toList());
+        events.forEach(event -> event.setConfirmedRequests(confirmed.getOrDefault(event.getId(), 0)));
     }
 
     private Compilation getCompilation(Long compId) {
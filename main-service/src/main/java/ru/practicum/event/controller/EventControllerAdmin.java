@@ -1,5 +1,6 @@
 package ru.practicum.event.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +8,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.UpdateEventUserRequest;
+import ru.practicum.event.model.EventPage;
 import ru.practicum.event.model.EventSearchParameters;
 import ru.practicum.event.model.State;
 import ru.practicum.event.service.EventService;
@@ -22,6 +24,8 @@ import java.util.List;
 @Slf4j
 public class EventControllerAdmin {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final EventService eventService;
 
     @GetMapping
@@ -32,7 +36,9 @@ public class EventControllerAdmin {
             @RequestParam(name = "rangeStart", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
             @RequestParam(name = "rangeEnd", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
             @RequestParam(name = "from", defaultValue = "0", required = false) Integer from,
-            @RequestParam(name = "size", defaultValue = "10", required = false) Integer size) {
+            @RequestParam(name = "size", defaultValue = "10", required = false) Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response) {
 
         EventSearchParameters parameters = EventSearchParameters
                 .builder()
@@ -43,9 +49,14 @@ public class EventControllerAdmin {
                 .rangeEnd(rangeEnd)
                 .from(from)
                 .size(size)
+                .cursor(cursor)
                 .build();
         log.info("Получен запрос GET: admin/events с параметрами: {}.", parameters);
-        return eventService.getEventsByFilterSearchForAdmin(parameters);
+        EventPage<EventFullDto> events = eventService.getEventsByFilterSearchForAdmin(parameters);
+        if (events.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, events.getNextCursor());
+        }
+        return events.getEvents();
     }
 
     @PatchMapping("/{eventId}")
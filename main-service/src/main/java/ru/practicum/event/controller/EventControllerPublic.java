@@ -1,6 +1,7 @@
 package ru.practicum.event.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,6 +10,7 @@ import ru.practicum.RequestCreateDto;
 import ru.practicum.client.StatClient;
 import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.EventShortDto;
+import ru.practicum.event.model.EventPage;
 import ru.practicum.event.model.EventSearchParameters;
 import ru.practicum.event.service.EventService;
 
@@ -20,6 +22,8 @@ import java.util.List;
 @Slf4j
 public class EventControllerPublic {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final EventService eventService;
     private final StatClient statClient;
 
@@ -34,7 +38,9 @@ public class EventControllerPublic {
             @RequestParam(name = "sort", required = false) String sort,
             @RequestParam(name = "from", defaultValue = "0", required = false) Integer from,
             @RequestParam(name = "size", defaultValue = "10", required = false) Integer size,
-            HttpServletRequest request) {
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         EventSearchParameters parameters = EventSearchParameters
                 .builder()
                 .text(text)
@@ -46,12 +52,16 @@ public class EventControllerPublic {
                 .sort(sort)
                 .from(from)
                 .size(size)
+                .cursor(cursor)
                 .build();
         log.info("Получен запрос GET: /events c параметрами: {}", parameters);
 
-        List<EventShortDto> events = eventService.getEventsByFilterSearch(parameters);
+        EventPage<EventShortDto> events = eventService.getEventsByFilterSearch(parameters);
+        if (events.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, events.getNextCursor());
+        }
 
-        log.info("Направлен запрос на сохранение данных в сервис статистики GET:/events.");
+        log.info("Посещение поставлено в очередь отправки в сервис статистики GET:/events.");
         RequestCreateDto requestCreateDto = new RequestCreateDto();
         requestCreateDto.setApp("main-service");
         requestCreateDto.setIp(request.getRemoteAddr());
@@ -59,7 +69,7 @@ public class EventControllerPublic {
         requestCreateDto.setTimestamp(LocalDateTime.now());
         statClient.addRequest(requestCreateDto);
 
-        return events;
+        return events.getEvents();
     }
 
     @GetMapping("/events/{eventId}")
@@ -68,7 +78,7 @@ public class EventControllerPublic {
         log.info("Получен запрос GET: /events/{}", eventId);
         EventFullDto event = eventService.getEventById(eventId);
 
-        log.info("Направлен запрос на сохранение данных в сервис статистики GET:/events/{}.", eventId);
+        log.info("Посещение поставлено в очередь отправки в сервис статистики GET:/events/{}.", eventId);
         RequestCreateDto requestCreateDto = new RequestCreateDto();
         requestCreateDto.setApp("main-service");
         requestCreateDto.setIp(request.getRemoteAddr());
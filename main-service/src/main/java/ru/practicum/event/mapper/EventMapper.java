@@ -1,5 +1,6 @@
 package ru.practicum.event.mapper;
 
+import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.mapper.CategoryMapper;
 import ru.practicum.category.model.Category;
 import ru.practicum.event.dto.EventFullDto;
@@ -7,7 +8,9 @@ import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.event.dto.NewEventDto;
 import ru.practicum.event.dto.UpdateEventUserRequest;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventShortView;
 import ru.practicum.location.mapper.LocationMapper;
+import ru.practicum.user.dto.UserShortDto;
 import ru.practicum.user.mapper.UserMapper;
 
 public final class EventMapper {
@@ -47,6 +50,19 @@ public final class EventMapper {
         return eventShortDto;
     }
 
+    public static EventShortDto toEventShortDto(EventShortView event) {
+        EventShortDto eventShortDto = new EventShortDto();
+        eventShortDto.setAnnotation(event.annotation());
+        eventShortDto.setCategory(new CategoryDto(event.categoryId(), event.categoryName()));
+        eventShortDto.setEventDate(event.eventDate());
+        eventShortDto.setId(event.id());
+        eventShortDto.setInitiator(new UserShortDto(event.initiatorId(), event.initiatorName()));
+        eventShortDto.setPaid(event.paid());
+        eventShortDto.setTitle(event.title());
+        eventShortDto.setViews(event.views());
+        eventShortDto.setConfirmedRequests(event.confirmedRequests());
+        return eventShortDto;
+    }
 
     public static Event toEventFromNewEventDto(NewEventDto newEventDto) {
         Event event = new Event();
@@ -45,7 +45,8 @@ public class Event {
     @Column(name = "participant_limit")
     private int participantLimit;
 
-    @Column(name = "confirmed_requests")
+    // Меняется только через EventAdmissionCounter, сохранение события значение не перезаписывает
+    @Column(name = "confirmed_requests", updatable = false)
     private int confirmedRequests;
 
     @Column(name = "request_moderation")
@@ -68,5 +69,7 @@ public class Event {
     @Enumerated(EnumType.STRING)
     private State state;
 
+    // Обновляется только из статистики (EventViewsService), сохранение события значение не перезаписывает
+    @Column(updatable = false)
     private int views;
 }
@@ -0,0 +1,97 @@
+package ru.practicum.event.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.exception.ParameterNotValidException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Курсор постраничного вывода событий: значение ключа сортировки и id последнего события страницы.
+// Следующая страница начинается сразу после этой пары, поэтому её стоимость не зависит от глубины.
+// Клиенту курсор передаётся в виде непрозрачной строки.
+@Getter
+@RequiredArgsConstructor
+public class EventCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final Key key;
+    private final String value;
+    private final Long id;
+
+    // Ключ сортировки, к которому привязан курсор.
+    // VIEWS - порядок без гарантий: events.views перезаписывается синхронизацией просмотров
+    // (events.views-sync.interval-ms), и если она прошла между запросами страниц, события,
+    // сменившие число просмотров, могут быть пропущены или показаны повторно.
+    // Стабильный порядок дают только ID и EVENT_DATE
+    public enum Key {
+        ID, EVENT_DATE, VIEWS;
+
+        public static Key of(String sort) {
+            if (sort == null) {
+                return ID;
+            }
+            return switch (sort) {
+                case "EVENT_DATE" -> EVENT_DATE;
+                case "VIEWS" -> VIEWS;
+                case "RELEVANCE" -> throw new ParameterNotValidException("cursor",
+                        "Постраничный вывод по курсору не поддерживается для сортировки по релевантности.");
+                default -> ID;
+            };
+        }
+    }
+
+    public static EventCursor after(Key key, Event event) {
+        return after(key, event.getId(), event.getEventDate(), event.getViews());
+    }
+
+    public static EventCursor after(Key key, EventShortView event) {
+        return after(key, event.id(), event.eventDate(), event.views());
+    }
+
+    private static EventCursor after(Key key, Long id, LocalDateTime eventDate, int views) {
+        String value = switch (key) {
+            case ID -> "";
+            case EVENT_DATE -> eventDate.toString();
+            case VIEWS -> String.valueOf(views);
+        };
+        return new EventCursor(key, value, id);
+    }
+
+    public LocalDateTime getEventDate() {
+        return LocalDateTime.parse(value);
+    }
+
+    public int getViews() {
+        return Integer.parseInt(value);
+    }
+
+    public String encode() {
+        String cursor = key + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventCursor decode(String cursor, Key expectedKey) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            EventCursor eventCursor = new EventCursor(Key.valueOf(parts[0]), parts[1], Long.parseLong(parts[2]));
+            if (eventCursor.getKey() != expectedKey) {
+                throw new ParameterNotValidException("cursor", "Курсор получен для другого режима сортировки.");
+            }
+            if (expectedKey == Key.EVENT_DATE) {
+                eventCursor.getEventDate();
+            } else if (expectedKey == Key.VIEWS) {
+                eventCursor.getViews();
+            }
+            return eventCursor;
+        } catch (ParameterNotValidException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ParameterNotValidException("cursor", "Некорректный курсор постраничного вывода.");
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package ru.practicum.event.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Страница событий и курсор следующей страницы (null, если страница последняя)
+@Getter
+@AllArgsConstructor
+public class EventPage<T> {
+
+    private List<T> events;
+    private String nextCursor;
+
+}
@@ -18,8 +18,9 @@ public class EventSearchParameters {
     private LocalDateTime rangeStart; // дата и время не позже которых должно произойти событие
     private LocalDateTime rangeEnd; // дата и время не позже которых должно произойти событие
     private Boolean onlyAvailable; // только события у которых не исчерпан лимит запросов на участие
-    private String sort; // Вариант сортировки: по дате события или по количеству просмотров: EVENT_DATE, VIEWS
+    private String sort; // Вариант сортировки: по дате события, по количеству просмотров или по релевантности тексту: EVENT_DATE, VIEWS, RELEVANCE
     private int from; // количество событий, которые нужно пропустить для формирования текущего набора
     private int size; // количество событий в наборе
+    private String cursor; // курсор следующей страницы; если задан, from не используется
 
 }
@@ -0,0 +1,18 @@
+package ru.practicum.event.model;
+
+import java.time.LocalDateTime;
+
+// Модель чтения для списков событий: только поля, нужные для EventShortDto,
+// без описания события и без загрузки сущностей в контекст персистентности
+public record EventShortView(Long id,
+                             String annotation,
+                             Long categoryId,
+                             String categoryName,
+                             int confirmedRequests,
+                             LocalDateTime eventDate,
+                             Long initiatorId,
+                             String initiatorName,
+                             Boolean paid,
+                             String title,
+                             int views) {
+}
@@ -1,5 +1,5 @@
 package ru.practicum.event.model;
 
 public enum SortMode {
-    EVENT_DATE, VIEWS
+    EVENT_DATE, VIEWS, RELEVANCE
 }
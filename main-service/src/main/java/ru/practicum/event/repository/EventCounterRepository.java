@@ -0,0 +1,64 @@
+package ru.practicum.event.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+
+// Пакетная запись счётчиков событий (events.confirmed_requests, events.views) в обход контекста JPA
+@Repository
+@RequiredArgsConstructor
+public class EventCounterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Записывает количество подтверждённых заявок одним пакетом
+    public void updateConfirmedRequests(Map<Long, Integer> confirmedByEventId) {
+        List<Object[]> args = new ArrayList<>(confirmedByEventId.size());
+        confirmedByEventId.forEach((eventId, confirmed) -> args.add(new Object[]{confirmed, eventId}));
+        jdbcTemplate.batchUpdate("UPDATE events SET confirmed_requests = ? WHERE id = ?", args);
+    }
+
+    // Просмотры опубликованных событий, которые ещё не прошли, по возрастанию id, начиная после afterId
+    public SequencedMap<Long, Integer> findUpcomingViews(LocalDateTime now, long afterId, int limit) {
+        SequencedMap<Long, Integer> views = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, views FROM events " +
+                           "WHERE state = 'PUBLISHED' AND event_date > ? AND id > ? ORDER BY id LIMIT ?",
+                rs -> {
+                    views.put(rs.getLong("id"), rs.getInt("views"));
+                }, now, afterId, limit);
+        return views;
+    }
+
+    // Записывает просмотры одним пакетом
+    public void updateViews(Map<Long, Integer> viewsByEventId) {
+        List<Object[]> args = new ArrayList<>(viewsByEventId.size());
+        viewsByEventId.forEach((eventId, views) -> args.add(new Object[]{views, eventId}));
+        jdbcTemplate.batchUpdate("UPDATE events SET views = ? WHERE id = ?", args);
+    }
+
+    // Исправляет счётчик у событий, где он расходится с количеством подтверждённых заявок: заявки считаются
+    // одним группирующим запросом, записываются только отличающиеся значения. Возвращает число исправленных событий
+    public int reconcileConfirmedRequests() {
+        Map<Long, Integer> drifted = new HashMap<>();
+        jdbcTemplate.query("SELECT e.id, COALESCE(r.confirmed, 0) AS confirmed FROM events e " +
+                           "LEFT JOIN (SELECT event, COUNT(*) AS confirmed FROM participation_request " +
+                           "           WHERE status = 'CONFIRMED' GROUP BY event) r ON r.event = e.id " +
+                           "WHERE e.confirmed_requests <> COALESCE(r.confirmed, 0)",
+                rs -> {
+                    drifted.put(rs.getLong("id"), rs.getInt("confirmed"));
+                });
+        if (!drifted.isEmpty()) {
+            updateConfirmedRequests(drifted);
+        }
+        return drifted.size();
+    }
+
+}
@@ -1,24 +1,49 @@
 package ru.practicum.event.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.State;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventShortViewRepository {
 
+    // Категория, инициатор и место проведения загружаются в том же запросе, что и события,
+    // чтобы преобразование списка в DTO не выполняло отдельный запрос на каждое событие
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     List<Event> findByInitiator_Id(Long userId, PageRequest page);
 
     Optional<Event> findByIdAndInitiator_Id(Long eventId, Long userId);
 
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     List<Event> findAll(Specification<Event> combinedSpecs, Pageable paging);
 
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     List<Event> findAllByIdIn(List<Long> eventIds);
 
     int countByCategory_Id(Long catId);
 
+    @EntityGraph(attributePaths = {"category"})
+    List<Event> findByStateAndIdGreaterThanOrderByIdAsc(State state, Long afterId, Limit limit);
+
+    // Атомарно занимает места в событии: строка меняется, только если лимит участников не будет превышен.
+    // Блокировка строки до конца транзакции упорядочивает параллельные заявки, возвращает 0, если мест не хватило
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + :count " +
+           "WHERE e.id = :eventId AND (e.participantLimit = 0 OR e.confirmedRequests + :count <= e.participantLimit)")
+    int tryIncrementConfirmed(Long eventId, int count);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests - 1 " +
+           "WHERE e.id = :eventId AND e.confirmedRequests > 0")
+    int decrementConfirmed(Long eventId);
+
 }
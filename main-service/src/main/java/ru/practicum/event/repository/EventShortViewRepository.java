@@ -0,0 +1,19 @@
+package ru.practicum.event.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventShortView;
+
+import java.util.List;
+
+public interface EventShortViewRepository {
+
+    // Страница событий по условиям поиска в виде проекции для списков
+    List<EventShortView> findShortViews(Specification<Event> specification, Sort sort, long offset, int limit);
+
+    // Страница событий по условиям поиска, упорядоченная по релевантности тексту
+    List<EventShortView> findShortViewsByTextRank(Specification<Event> specification, String text,
+                                                  long offset, int limit);
+
+}
@@ -0,0 +1,86 @@
+package ru.practicum.event.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.category.model.Category;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventShortView;
+import ru.practicum.user.model.User;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+// Выборка только столбцов EventShortDto конструктором в запросе; категория и инициатор присоединяются
+// в том же запросе, а результат не попадает в контекст персистентности и не отслеживается на изменения
+public class EventShortViewRepositoryImpl implements EventShortViewRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EventShortView> findShortViews(Specification<Event> specification, Sort sort, long offset, int limit) {
+        return findShortViews(specification, (event, criteriaBuilder) ->
+                QueryUtils.toOrders(sort, event, criteriaBuilder), offset, limit);
+    }
+
+    // Сначала события, где текст лучше совпадает с аннотацией и описанием; id делает порядок однозначным
+    @Override
+    public List<EventShortView> findShortViewsByTextRank(Specification<Event> specification, String text,
+                                                         long offset, int limit) {
+        String lowerCaseText = text.toLowerCase();
+        return findShortViews(specification, (event, criteriaBuilder) -> {
+            Expression<Double> rank = criteriaBuilder.sum(
+                    criteriaBuilder.function("text_rank", Double.class,
+                            criteriaBuilder.lower(event.get("annotation")), criteriaBuilder.literal(lowerCaseText)),
+                    criteriaBuilder.function("text_rank", Double.class,
+                            criteriaBuilder.lower(event.get("description")), criteriaBuilder.literal(lowerCaseText)));
+            return List.of(criteriaBuilder.desc(rank), criteriaBuilder.asc(event.get("id")));
+        }, offset, limit);
+    }
+
+    private List<EventShortView> findShortViews(Specification<Event> specification,
+                                                BiFunction<Root<Event>, CriteriaBuilder, List<Order>> orders,
+                                                long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventShortView> query = criteriaBuilder.createQuery(EventShortView.class);
+        Root<Event> event = query.from(Event.class);
+        Join<Event, Category> category = event.join("category", JoinType.INNER);
+        Join<Event, User> initiator = event.join("initiator", JoinType.INNER);
+
+        query.select(criteriaBuilder.construct(EventShortView.class,
+                event.get("id"),
+                event.get("annotation"),
+                category.get("id"),
+                category.get("name"),
+                event.get("confirmedRequests"),
+                event.get("eventDate"),
+                initiator.get("id"),
+                initiator.get("name"),
+                event.get("paid"),
+                event.get("title"),
+                event.get("views")));
+
+        Predicate predicate = specification.toPredicate(event, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(orders.apply(event, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+}
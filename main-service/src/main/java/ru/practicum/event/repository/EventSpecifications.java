@@ -2,6 +2,7 @@ package ru.practicum.event.repository;
 
 import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventCursor;
 import jakarta.persistence.criteria.Predicate;
 import ru.practicum.event.model.State;
 
@@ -18,6 +19,12 @@ public final class EventSpecifications {
                 event.join("initiator").get("id").in(users);
     }
 
+    // Список id событий
+    public static Specification<Event> inIds(final List<Long> eventIds) {
+        return (event, query, criteriaBuilder) ->
+                event.get("id").in(eventIds);
+    }
+
     // Список состояний в которых находятся искомые события
     public static Specification<Event> inStates(final List<State> states) {
         return (event, query, criteriaBuilder) ->
@@ -62,7 +69,7 @@ public final class EventSpecifications {
     // только события у которых не исчерпан лимит запросов на участие
     public static Specification<Event> onlyAvailableEvent() {
         return (event, query, criteriaBuilder) -> criteriaBuilder.or(
-                criteriaBuilder.le(event.get("confirmedRequests"), event.get("participantLimit")),
+                criteriaBuilder.lt(event.get("confirmedRequests"), event.get("participantLimit")),
                 criteriaBuilder.le(event.get("participantLimit"), 0)
         );
     }
@@ -73,6 +80,23 @@ public final class EventSpecifications {
                 criteriaBuilder.equal(root.get("state"), state);
     }
 
+    // События после курсора в порядке его ключа сортировки: (eventDate, id), (views desc, id) или id.
+    // Для (views desc, id) сравнение идёт с текущими просмотрами, а не с теми, что были при выдаче курсора
+    public static Specification<Event> afterCursor(final EventCursor cursor) {
+        return (event, query, criteriaBuilder) -> {
+            Predicate afterId = criteriaBuilder.greaterThan(event.get("id"), cursor.getId());
+            return switch (cursor.getKey()) {
+                case ID -> afterId;
+                case EVENT_DATE -> criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(event.get("eventDate"), cursor.getEventDate()),
+                        criteriaBuilder.and(criteriaBuilder.equal(event.get("eventDate"), cursor.getEventDate()), afterId));
+                case VIEWS -> criteriaBuilder.or(
+                        criteriaBuilder.lessThan(event.get("views"), cursor.getViews()),
+                        criteriaBuilder.and(criteriaBuilder.equal(event.get("views"), cursor.getViews()), afterId));
+            };
+        };
+    }
+
     public static Specification<Event> combine(List<Specification<Event>> specs) {
         return (event, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -0,0 +1,23 @@
+package ru.practicum.event.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+// Функция text_rank(текст, искомая строка) для сортировки результатов поиска по релевантности.
+// В PostgreSQL это функция event_text_rank из schema-postgresql.sql: триграммная похожесть из pg_trgm,
+// если расширение доступно; в остальных случаях (и в H2 в тестах) - 1, если строка найдена, иначе 0
+public class TextSearchFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect
+                ? "event_text_rank(?1, ?2)"
+                : "(case when locate(?2, ?1) > 0 then 1.0 else 0.0 end)";
+        functionContributions.getFunctionRegistry().registerPattern("text_rank", pattern,
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DOUBLE));
+    }
+
+}
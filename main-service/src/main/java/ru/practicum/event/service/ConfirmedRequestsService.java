@@ -0,0 +1,60 @@
+package ru.practicum.event.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.request.model.EventRequestCount;
+import ru.practicum.request.model.StatusRequest;
+import ru.practicum.request.repository.RequestRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Количество подтверждённых заявок для списков событий по participation_request.
+// Отсутствующие в кэше события считаются одним группирующим запросом на всю страницу,
+// кэш с коротким сроком жизни снимает повторные подсчёты для популярных страниц.
+@Service
+public class ConfirmedRequestsService {
+
+    private final RequestRepository requestRepository;
+    private final Cache<Long, Integer> cache;
+
+    public ConfirmedRequestsService(RequestRepository requestRepository,
+                                    @Value("${events.confirmed-requests-cache.ttl-ms:2000}") long ttlMs,
+                                    @Value("${events.confirmed-requests-cache.max-size:100000}") long maxSize,
+                                    MeterRegistry meterRegistry) {
+        this.requestRepository = requestRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "confirmed-requests");
+    }
+
+    public Map<Long, Integer> getConfirmedRequests(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return cache.getAll(eventIds, this::countConfirmedRequests);
+    }
+
+    private Map<Long, Integer> countConfirmedRequests(Set<? extends Long> eventIds) {
+        Map<Long, Integer> confirmed = new HashMap<>();
+        for (Long eventId : eventIds) {
+            confirmed.put(eventId, 0);
+        }
+        for (EventRequestCount count : requestRepository.countByEventIds(eventIds, StatusRequest.CONFIRMED)) {
+            confirmed.put(count.eventId(), count.count().intValue());
+        }
+        return confirmed;
+    }
+
+}
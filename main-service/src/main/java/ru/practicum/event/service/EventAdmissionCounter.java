@@ -0,0 +1,219 @@
+package ru.practicum.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.repository.EventCounterRepository;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.request.model.StatusRequest;
+import ru.practicum.request.repository.RequestRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Счётчики подтверждённых заявок событий в памяти.
+// Места занимаются CAS-операцией над счётчиком события, поэтому всплеск заявок на одно событие не упирается
+// в блокировку строки events; счётчик заполняется из participation_request при первом обращении.
+// Зафиксированные значения записываются в events.confirmed_requests пакетами раз в flush-interval-ms,
+// периодическая сверка с participation_request исправляет расхождения.
+// Счётчики в памяти корректны только при одном экземпляре сервиса, поэтому режим выключен по умолчанию
+// (events.admission.in-memory.enabled=false) и места занимаются условным UPDATE строки события
+// (EventRepository.tryIncrementConfirmed). Счётчик события, который не менялся целый интервал записи,
+// удаляется из памяти и при следующем обращении заполняется заново.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EventAdmissionCounter {
+
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private final EventRepository eventRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final RequestRepository requestRepository;
+
+    @Value("${events.admission.in-memory.enabled:false}")
+    private boolean enabled;
+
+    private final Map<Long, Admission> admissions = new ConcurrentHashMap<>();
+
+    // Количество занятых мест, включая заявки в незавершённых транзакциях
+    public int getConfirmed(Event event) {
+        if (!enabled) {
+            return event.getConfirmedRequests();
+        }
+        int reserved;
+        do {
+            reserved = getAdmission(event.getId()).reserved.get();
+        } while (reserved == RETIRED);
+        return reserved;
+    }
+
+    // Занимает count мест, если лимит участников позволяет; при откате транзакции места освобождаются
+    public boolean tryAdmit(Event event, int count) {
+        if (!enabled) {
+            return eventRepository.tryIncrementConfirmed(event.getId(), count) > 0;
+        }
+
+        Admission admission = reserve(event.getId(), event.getParticipantLimit(), count);
+        if (admission == null) {
+            return false;
+        }
+        afterCompletion(() -> admission.commit(count), () -> admission.reserved.addAndGet(-count));
+        return true;
+    }
+
+    // Освобождает место после коммита отмены подтверждённой заявки
+    public void release(Long eventId) {
+        if (!enabled) {
+            eventRepository.decrementConfirmed(eventId);
+            return;
+        }
+
+        Admission admission = getAdmission(eventId);
+        afterCompletion(() -> {
+            admission.reserved.decrementAndGet();
+            admission.commit(-1);
+        }, () -> {
+        });
+    }
+
+    // Записывает изменённые счётчики и удаляет из памяти те, что не менялись с прошлой записи
+    @Scheduled(fixedDelayString = "${events.admission.flush-interval-ms:1000}")
+    public void flush() {
+        Map<Long, Integer> changed = new HashMap<>();
+        admissions.forEach((eventId, admission) -> {
+            if (admission.dirty.getAndSet(false)) {
+                changed.put(eventId, admission.committed.get());
+                admission.idle = false;
+            } else if (!admission.idle) {
+                admission.idle = true;
+            } else if (admission.retire()) {
+                admissions.remove(eventId, admission);
+                // Отмена могла зафиксироваться между проверкой dirty и выводом счётчика из работы
+                if (admission.dirty.getAndSet(false)) {
+                    changed.put(eventId, admission.committed.get());
+                }
+            }
+        });
+
+        if (!changed.isEmpty()) {
+            eventCounterRepository.updateConfirmedRequests(changed);
+            log.debug("Записано количество подтверждённых заявок у {} событий.", changed.size());
+        }
+    }
+
+    // Сверка счётчиков с подтверждёнными заявками одним группирующим запросом. Заявка, зафиксированная
+    // во время сверки, может дать временное расхождение на единицу, которое исправит следующая сверка.
+    // Выполняется только в режиме счётчиков в памяти: условный UPDATE строки события не даёт расхождений
+    @Scheduled(fixedDelayString = "${events.admission.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        int fixed = eventCounterRepository.reconcileConfirmedRequests();
+        if (fixed > 0) {
+            log.warn("Исправлено количество подтверждённых заявок у {} событий.", fixed);
+        }
+
+        if (!admissions.isEmpty()) {
+            Map<Long, Long> confirmed = new HashMap<>();
+            requestRepository.countByEventIds(admissions.keySet(), StatusRequest.CONFIRMED)
+                    .forEach(count -> confirmed.put(count.eventId(), count.count()));
+
+            admissions.forEach((eventId, admission) -> {
+                if (admission.reserved.get() == RETIRED) {
+                    return;
+                }
+                int drift = confirmed.getOrDefault(eventId, 0L).intValue() - admission.committed.get();
+                if (drift != 0) {
+                    log.warn("Счётчик подтверждённых заявок события с id {} расходится с заявками на {}.",
+                            eventId, drift);
+                    admission.reserved.addAndGet(drift);
+                    admission.commit(drift);
+                }
+            });
+        }
+        flush();
+    }
+
+    // Занимает места в действующем счётчике события и возвращает его; null, если лимит не позволяет
+    private Admission reserve(Long eventId, int limit, int count) {
+        while (true) {
+            Admission admission = getAdmission(eventId);
+            int reserved = admission.reserved.get();
+            if (reserved == RETIRED) {
+                continue;
+            }
+            if (limit > 0 && reserved + count > limit) {
+                return null;
+            }
+            if (admission.reserved.compareAndSet(reserved, reserved + count)) {
+                return admission;
+            }
+        }
+    }
+
+    private Admission getAdmission(Long eventId) {
+        Admission admission = admissions.get(eventId);
+        if (admission != null) {
+            return admission;
+        }
+        int confirmed = requestRepository.countByEvent_IdAndStatus(eventId, StatusRequest.CONFIRMED);
+        Admission seeded = new Admission(confirmed);
+        admission = admissions.putIfAbsent(eventId, seeded);
+        return admission != null ? admission : seeded;
+    }
+
+    private void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    // reserved - занятые места с учётом незавершённых транзакций, committed - зафиксированные,
+    // dirty - зафиксированное значение ещё не записано в events, idle - не менялся с прошлой записи
+    // (изменяется только потоком записи). Выведенный из работы счётчик хранит в reserved значение RETIRED:
+    // занимающий место поток увидит его и возьмёт из карты новый счётчик
+    private static final class Admission {
+        private final AtomicInteger reserved;
+        private final AtomicInteger committed;
+        private final AtomicBoolean dirty = new AtomicBoolean(true);
+        private boolean idle;
+
+        private Admission(int confirmed) {
+            this.reserved = new AtomicInteger(confirmed);
+            this.committed = new AtomicInteger(confirmed);
+        }
+
+        private void commit(int count) {
+            committed.addAndGet(count);
+            dirty.set(true);
+        }
+
+        // Выводит счётчик из работы, только если у события нет мест в незавершённых транзакциях
+        private boolean retire() {
+            return reserved.compareAndSet(committed.get(), RETIRED);
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+package ru.practicum.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventSearchParameters;
+import ru.practicum.event.model.State;
+import ru.practicum.event.repository.EventRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Инвертированный индекс опубликованных событий в памяти для публичного поиска без просмотра таблицы events.
+// Суффиксы слов аннотации и описания, категория, признак оплаты и день проведения хранятся
+// как списки идентификаторов событий; поиск возвращает идентификаторы одной страницы, строки читаются по id.
+// Текст ищется так же, как в базе (EventSpecifications.withText): фраза целиком как подстрока аннотации
+// или описания без учёта регистра. Суффиксы слов только отбирают кандидатов, фраза проверяется по тексту события.
+// Включается свойством events.search.in-memory.enabled, строится при старте и обновляется после коммита изменений.
+@Component
+@Slf4j
+public class EventSearchIndex {
+
+    private static final String TOKEN_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate readTransaction;
+
+    @Value("${events.search.in-memory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${events.search.in-memory.batch-size:1000}")
+    private int batchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedEvent> events = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> suffixes = new TreeMap<>();
+    private final Map<Long, Set<Long>> categories = new HashMap<>();
+    private final Map<Boolean, Set<Long>> paid = new HashMap<>();
+    private final NavigableMap<LocalDate, Set<Long>> eventDays = new TreeMap<>();
+    private volatile boolean ready;
+
+    // Событие перечитывается после коммита в отдельной транзакции: транзакция изменения уже завершена
+    public EventSearchIndex(EventRepository eventRepository, PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+
+        long afterId = 0;
+        List<Event> batch;
+        do {
+            batch = eventRepository.findByStateAndIdGreaterThanOrderByIdAsc(State.PUBLISHED, afterId,
+                    Limit.of(batchSize));
+            for (Event event : batch) {
+                IndexedEvent indexedEvent = toIndexedEvent(event);
+                lock.writeLock().lock();
+                try {
+                    add(indexedEvent);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                afterId = event.getId();
+            }
+        } while (batch.size() == batchSize);
+
+        ready = true;
+        log.info("Построен индекс поиска событий в памяти: {} событий, {} суффиксов слов.",
+                events.size(), suffixes.size());
+    }
+
+    // Поиск выполняется по индексу, только если он построен и все условия запроса поддерживаются индексом
+    public boolean canSearch(EventSearchParameters params) {
+        return ready
+               && params.getCursor() == null
+               && (params.getOnlyAvailable() == null || !params.getOnlyAvailable())
+               && (params.getSort() == null || "EVENT_DATE".equals(params.getSort()));
+    }
+
+    // Идентификаторы событий одной страницы в порядке выдачи
+    public List<Long> search(EventSearchParameters params, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = null;
+            if (params.getText() != null && !params.getText().isBlank()) {
+                candidates = intersect(candidates, findByText(params.getText()));
+            }
+            if (params.getCategories() != null && !params.getCategories().isEmpty()) {
+                Set<Long> byCategories = new HashSet<>();
+                for (Long categoryId : params.getCategories()) {
+                    byCategories.addAll(categories.getOrDefault(categoryId, Set.of()));
+                }
+                candidates = intersect(candidates, byCategories);
+            }
+            if (params.getPaid() != null) {
+                candidates = intersect(candidates, paid.getOrDefault(params.getPaid(), Set.of()));
+            }
+
+            LocalDateTime rangeStart = params.getRangeStart() != null && params.getRangeEnd() != null
+                    ? params.getRangeStart() : now;
+            LocalDateTime rangeEnd = params.getRangeStart() != null && params.getRangeEnd() != null
+                    ? params.getRangeEnd() : LocalDateTime.MAX;
+            Set<Long> byDays = new HashSet<>();
+            eventDays.subMap(rangeStart.toLocalDate(), true,
+                            rangeEnd.equals(LocalDateTime.MAX) ? LocalDate.MAX : rangeEnd.toLocalDate(), true)
+                    .values()
+                    .forEach(byDays::addAll);
+            candidates = intersect(candidates, byDays);
+
+            boolean isPeriod = params.getRangeStart() != null && params.getRangeEnd() != null;
+            Comparator<IndexedEvent> order = "EVENT_DATE".equals(params.getSort())
+                    ? Comparator.comparing(IndexedEvent::eventDate).thenComparing(IndexedEvent::id)
+                    : Comparator.comparing(IndexedEvent::id);
+            int offset = params.getFrom() / params.getSize() * params.getSize();
+
+            return candidates.stream()
+                    .map(events::get)
+                    .filter(event -> isPeriod
+                            ? !event.eventDate().isBefore(rangeStart) && !event.eventDate().isAfter(rangeEnd)
+                            : event.eventDate().isAfter(rangeStart))
+                    .sorted(order)
+                    .skip(offset)
+                    .limit(params.getSize())
+                    .map(IndexedEvent::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Изменения применяются к индексу после коммита, чтобы поиск не видел незафиксированных данных.
+    // Событие читается из базы уже после коммита, поэтому при параллельных изменениях индекс получает
+    // последнее зафиксированное состояние, а не то, которое транзакция видела до коммита
+    public void update(Long eventId) {
+        if (!enabled) {
+            return;
+        }
+
+        Runnable apply = () -> {
+            IndexedEvent indexedEvent = readTransaction.execute(status -> eventRepository.findById(eventId)
+                    .filter(event -> event.getState() == State.PUBLISHED)
+                    .map(this::toIndexedEvent)
+                    .orElse(null));
+            lock.writeLock().lock();
+            try {
+                remove(eventId);
+                if (indexedEvent != null) {
+                    add(indexedEvent);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Каждое слово фразы - подстрока какого-то слова события, то есть начало одного из его суффиксов:
+    // кандидаты находятся поиском по диапазону ключей. Затем фраза целиком ищется в аннотации и описании
+    private Set<Long> findByText(String text) {
+        String phrase = text.toLowerCase();
+        Set<Long> candidates = null;
+        for (String queryToken : tokenize(phrase)) {
+            Set<Long> byToken = new HashSet<>();
+            suffixes.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(byToken::addAll);
+            candidates = intersect(candidates, byToken);
+        }
+
+        Set<Long> result = new HashSet<>();
+        for (Long eventId : candidates == null ? events.keySet() : candidates) {
+            IndexedEvent event = events.get(eventId);
+            if (event.annotation().contains(phrase) || event.description().contains(phrase)) {
+                result.add(eventId);
+            }
+        }
+        return result;
+    }
+
+    private Set<Long> intersect(Set<Long> candidates, Set<Long> eventIds) {
+        if (candidates == null) {
+            return new HashSet<>(eventIds);
+        }
+        candidates.retainAll(eventIds);
+        return candidates;
+    }
+
+    private IndexedEvent toIndexedEvent(Event event) {
+        String annotation = event.getAnnotation() == null ? "" : event.getAnnotation().toLowerCase();
+        String description = event.getDescription() == null ? "" : event.getDescription().toLowerCase();
+        Set<String> eventTokens = new HashSet<>();
+        eventTokens.addAll(tokenize(annotation));
+        eventTokens.addAll(tokenize(description));
+        return new IndexedEvent(event.getId(), event.getEventDate(), event.getCategory().getId(),
+                Boolean.TRUE.equals(event.getPaid()), annotation, description, eventTokens);
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        for (String token : text.toLowerCase().split(TOKEN_SEPARATOR)) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private void add(IndexedEvent event) {
+        events.put(event.id(), event);
+        for (String token : event.tokens()) {
+            for (int i = 0; i < token.length(); i++) {
+                suffixes.computeIfAbsent(token.substring(i), key -> new HashSet<>()).add(event.id());
+            }
+        }
+        categories.computeIfAbsent(event.categoryId(), key -> new HashSet<>()).add(event.id());
+        paid.computeIfAbsent(event.paid(), key -> new HashSet<>()).add(event.id());
+        eventDays.computeIfAbsent(event.eventDate().toLocalDate(), key -> new HashSet<>()).add(event.id());
+    }
+
+    private void remove(Long eventId) {
+        IndexedEvent event = events.remove(eventId);
+        if (event == null) {
+            return;
+        }
+        for (String token : event.tokens()) {
+            for (int i = 0; i < token.length(); i++) {
+                removePosting(suffixes, token.substring(i), eventId);
+            }
+        }
+        removePosting(categories, event.categoryId(), eventId);
+        removePosting(paid, event.paid(), eventId);
+        removePosting(eventDays, event.eventDate().toLocalDate(), eventId);
+    }
+
+    private <K> void removePosting(Map<K, Set<Long>> postings, K key, Long eventId) {
+        Set<Long> eventIds = postings.get(key);
+        if (eventIds != null) {
+            eventIds.remove(eventId);
+            if (eventIds.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    // Аннотация и описание хранятся в нижнем регистре для проверки фразы
+    private record IndexedEvent(Long id, LocalDateTime eventDate, Long categoryId, boolean paid,
+                                String annotation, String description, Set<String> tokens) {
+    }
+
+}
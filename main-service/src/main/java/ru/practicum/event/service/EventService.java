@@ -4,6 +4,7 @@ import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.event.dto.NewEventDto;
 import ru.practicum.event.dto.UpdateEventUserRequest;
+import ru.practicum.event.model.EventPage;
 import ru.practicum.event.model.EventSearchParameters;
 
 import java.util.List;
@@ -18,11 +19,11 @@ public interface EventService {
 
     EventFullDto updateEventByUser(Long userId, Long eventId, UpdateEventUserRequest updateEventUserRequest);
 
-    List<EventShortDto> getEventsByFilterSearch(EventSearchParameters parameters);
+    EventPage<EventShortDto> getEventsByFilterSearch(EventSearchParameters parameters);
 
     EventFullDto getEventById(Long eventId);
 
-    List<EventFullDto> getEventsByFilterSearchForAdmin(EventSearchParameters parameters);
+    EventPage<EventFullDto> getEventsByFilterSearchForAdmin(EventSearchParameters parameters);
 
     EventFullDto updateEventByAdmin(Long eventId, UpdateEventUserRequest updateEventUserRequest);
 
@@ -6,18 +6,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.RequestOutputDto;
-import ru.practicum.client.StatClient;
+import ru.practicum.compilation.service.CompilationCache;
 import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.event.dto.NewEventDto;
 import ru.practicum.event.dto.UpdateEventUserRequest;
 import ru.practicum.event.mapper.EventMapper;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventCursor;
+import ru.practicum.event.model.EventPage;
 import ru.practicum.event.model.EventSearchParameters;
+import ru.practicum.event.model.EventShortView;
 import ru.practicum.event.model.State;
 import ru.practicum.event.model.StateAction;
 import ru.practicum.event.repository.EventRepository;
@@ -34,6 +35,9 @@ import ru.practicum.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,16 +48,26 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final LocationRepository locationRepository;
-    private final StatClient statClient;
+    private final EventViewsService eventViewsService;
+    private final EventSearchIndex eventSearchIndex;
+    private final CompilationCache compilationCache;
+    private final ConfirmedRequestsService confirmedRequestsService;
 
     @Override
+    @Transactional(readOnly = true)
     public List<EventShortDto> getEventByUser(Long userId, int from, int size) {
         getUser(userId);
         PageRequest page = PageRequest.of(from, size, Sort.by("id").ascending());
-        return eventRepository.findByInitiator_Id(userId, page)
+        List<EventShortDto> results = eventRepository.findShortViews(EventSpecifications.inUsers(List.of(userId)),
+                        page.getSort(), page.getOffset(), page.getPageSize())
                 .stream()
                 .map(EventMapper::toEventShortDto)
                 .collect(Collectors.toList());
+
+        Map<Long, Integer> confirmed = confirmedRequestsService.getConfirmedRequests(
+                results.stream().map(EventShortDto::getId).toList());
+        results.forEach(event -> event.setConfirmedRequests(confirmed.getOrDefault(event.getId(), 0)));
+        return results;
     }
 
     @Override
@@ -66,7 +80,9 @@ public class EventServiceImpl implements EventService {
         event.setCreatedOn(LocalDateTime.now());
         event.setRequestModeration(newEventDto.getRequestModeration() != null ? newEventDto.getRequestModeration() : true);
         event.setState(State.PENDING);
-        return EventMapper.toEventFullDto(eventRepository.save(event));
+        Event savedEvent = eventRepository.save(event);
+        eventSearchIndex.update(savedEvent.getId());
+        return EventMapper.toEventFullDto(savedEvent);
     }
 
     @Override
@@ -109,11 +125,15 @@ public class EventServiceImpl implements EventService {
 
         newevent.setLocation(getLocation(newevent.getLocation()));
 
-        return EventMapper.toEventFullDto(eventRepository.save(newevent));
+        Event savedEvent = eventRepository.save(newevent);
+        eventSearchIndex.update(savedEvent.getId());
+        compilationCache.invalidate();
+        return EventMapper.toEventFullDto(savedEvent);
     }
 
     @Override
-    public List<EventShortDto> getEventsByFilterSearch(EventSearchParameters params) {
+    @Transactional(readOnly = true)
+    public EventPage<EventShortDto> getEventsByFilterSearch(EventSearchParameters params) {
         List<Specification<Event>> specifications = new ArrayList<>();
 
         if (params.getRangeStart() != null && params.getRangeEnd() != null
@@ -127,7 +147,7 @@ public class EventServiceImpl implements EventService {
             specifications.add(EventSpecifications.withText(params.getText()));
         }
         // Категории
-        if (params.getCategories() != null && params.getCategories().isEmpty()) {
+        if (params.getCategories() != null && !params.getCategories().isEmpty()) {
             specifications.add(EventSpecifications.inCategories(params.getCategories()));
         }
         // Платные/бесплатные события
@@ -147,31 +167,59 @@ public class EventServiceImpl implements EventService {
         // Только опубликованные события
         specifications.add(EventSpecifications.onlyPublishedEvent(State.PUBLISHED));
 
-        // Режим сортировки
-        Sort sort = Sort.unsorted();
+        // Режим сортировки: по просмотрам - по значению events.views, которое синхронизируется из статистики.
+        // id в конце сортировки делает порядок однозначным, на этом основан постраничный вывод по курсору
+        Sort sort = Sort.by("id");
         if (params.getSort() != null) {
-            switch (params.getSort()) {
-                case "EVENT_DATE" -> Sort.by(Sort.Direction.ASC, "eventDate");
-                case "VIEWS" -> Sort.by(Sort.Direction.ASC, "viewsCount");
-            }
-            ;
+            sort = switch (params.getSort()) {
+                case "EVENT_DATE" -> Sort.by(Sort.Direction.ASC, "eventDate").and(Sort.by("id"));
+                case "VIEWS" -> Sort.by(Sort.Direction.DESC, "views").and(Sort.by("id"));
+                default -> Sort.by("id");
+            };
         }
+        // По релевантности порядок задаёт отдельный метод репозитория, так как это выражение, а не поле
+        boolean byTextRank = "RELEVANCE".equals(params.getSort())
+                             && params.getText() != null && !params.getText().isBlank();
 
-        Specification<Event> combinedSpecs = EventSpecifications.combine(specifications);
         Pageable paging = PageRequest.of(params.getFrom() / params.getSize(), params.getSize(), sort);
+        // Со следующей страницы по курсору выборка начинается сразу после последнего события предыдущей страницы
+        if (params.getCursor() != null) {
+            EventCursor cursor = EventCursor.decode(params.getCursor(), EventCursor.Key.of(params.getSort()));
+            specifications.add(EventSpecifications.afterCursor(cursor));
+            paging = PageRequest.of(0, params.getSize(), sort);
+        }
+        Specification<Event> combinedSpecs = EventSpecifications.combine(specifications);
 
-        List<Event> events = eventRepository.findAll(combinedSpecs, paging);
+        // Для списка читаются только поля EventShortDto, без загрузки сущностей
+        List<EventShortView> events;
+        if (eventSearchIndex.canSearch(params)) {
+            events = findShortViewsByIds(eventSearchIndex.search(params, LocalDateTime.now()));
+        } else if (byTextRank) {
+            events = eventRepository.findShortViewsByTextRank(combinedSpecs, params.getText(), paging.getOffset(),
+                    paging.getPageSize());
+        } else {
+            events = eventRepository.findShortViews(combinedSpecs, paging.getSort(), paging.getOffset(),
+                    paging.getPageSize());
+        }
+        List<Long> eventIds = events.stream().map(EventShortView::id).toList();
+        Map<Long, Long> views = eventViewsService.getViews(eventIds, false);
+        Map<Long, Integer> confirmed = confirmedRequestsService.getConfirmedRequests(eventIds);
 
         List<EventShortDto> results = new ArrayList<>();
-        for (Event event : events) {
-            results.add(EventMapper.toEventShortDto(eventViewsStats(event)));
+        for (EventShortView event : events) {
+            EventShortDto eventShortDto = EventMapper.toEventShortDto(event);
+            eventShortDto.setViews(views.getOrDefault(event.id(), 0L).intValue());
+            eventShortDto.setConfirmedRequests(confirmed.getOrDefault(event.id(), 0));
+            results.add(eventShortDto);
         }
 
-        return results;
+        String nextCursor = getNextCursor(params.getSort(), events.size() == params.getSize(),
+                key -> EventCursor.after(key, events.getLast()));
+        return new EventPage<>(results, nextCursor);
     }
 
     @Override
-    public List<EventFullDto> getEventsByFilterSearchForAdmin(EventSearchParameters params) {
+    public EventPage<EventFullDto> getEventsByFilterSearchForAdmin(EventSearchParameters params) {
         List<Specification<Event>> specifications = new ArrayList<>();
 
         // Пользователи
@@ -193,14 +241,27 @@ public class EventServiceImpl implements EventService {
             specifications.add(EventSpecifications.laterCurrentDateTime(LocalDateTime.now()));
         }
 
-        Sort sort = Sort.unsorted();
-        Specification<Event> combinedSpecs = EventSpecifications.combine(specifications);
+        Sort sort = Sort.by("id");
         Pageable paging = PageRequest.of(params.getFrom() / params.getSize(), params.getSize(), sort);
+        if (params.getCursor() != null) {
+            EventCursor cursor = EventCursor.decode(params.getCursor(), EventCursor.Key.ID);
+            specifications.add(EventSpecifications.afterCursor(cursor));
+            paging = PageRequest.of(0, params.getSize(), sort);
+        }
+        Specification<Event> combinedSpecs = EventSpecifications.combine(specifications);
 
-        return eventRepository.findAll(combinedSpecs, paging)
-                .stream()
-                .map(EventMapper::toEventFullDto)
-                .collect(Collectors.toList());
+        List<Event> events = eventRepository.findAll(combinedSpecs, paging);
+        Map<Long, Integer> confirmed = confirmedRequestsService.getConfirmedRequests(
+                events.stream().map(Event::getId).toList());
+        List<EventFullDto> results = new ArrayList<>();
+        for (Event event : events) {
+            EventFullDto eventFullDto = EventMapper.toEventFullDto(event);
+            eventFullDto.setConfirmedRequests(confirmed.getOrDefault(event.getId(), 0));
+            results.add(eventFullDto);
+        }
+        String nextCursor = getNextCursor(null, events.size() == params.getSize(),
+                key -> EventCursor.after(key, events.getLast()));
+        return new EventPage<>(results, nextCursor);
     }
 
     @Override
@@ -242,10 +303,16 @@ public class EventServiceImpl implements EventService {
                     }
             }
         }
-        return EventMapper.toEventFullDto(eventRepository.save(newevent));
+        Event savedEvent = eventRepository.save(newevent);
+        eventSearchIndex.update(savedEvent.getId());
+        compilationCache.invalidate();
+        return EventMapper.toEventFullDto(savedEvent);
     }
 
+    // Просмотры считаются при чтении и не сохраняются в событие, поэтому публичное чтение не пишет в базу.
+    // Для самого нагруженного публичного эндпоинта достаточно приблизительного подсчёта
     @Override
+    @Transactional(readOnly = true)
     public EventFullDto getEventById(Long eventId) {
 
         Event event = getEvent(eventId);
@@ -253,8 +320,32 @@ public class EventServiceImpl implements EventService {
             log.error("Событие не опубликовано.");
             throw new NotFoundException("Событие не опубликовано.");
         }
-        event = eventViewsStats(event);
-        return EventMapper.toEventFullDto(event);
+        EventFullDto eventFullDto = EventMapper.toEventFullDto(event);
+        eventFullDto.setViews(eventViewsService.getViews(List.of(eventId), false).getOrDefault(eventId, 0L).intValue());
+        return eventFullDto;
+    }
+
+    // Курсор следующей страницы, если текущая заполнена полностью и сортировка поддерживает курсор
+    private String getNextCursor(String sort, boolean isFullPage, Function<EventCursor.Key, EventCursor> afterLast) {
+        if (!isFullPage || "RELEVANCE".equals(sort)) {
+            return null;
+        }
+        return afterLast.apply(EventCursor.Key.of(sort)).encode();
+    }
+
+    // События по списку id в порядке этого списка
+    private List<EventShortView> findShortViewsByIds(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EventShortView> eventsById = eventRepository.findShortViews(EventSpecifications.inIds(eventIds),
+                        Sort.unsorted(), 0, eventIds.size())
+                .stream()
+                .collect(Collectors.toMap(EventShortView::id, event -> event));
+        return eventIds.stream()
+                .map(eventsById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     private User getUser(Long userId) {
@@ -280,28 +371,7 @@ public class EventServiceImpl implements EventService {
 
     private Location getLocation(Location location) {
         return locationRepository.findByLatAndLon(location.getLat(), location.getLon())
-                .orElse(locationRepository.save(location));
-    }
-
-    private Event eventViewsStats(Event event) {
-        ResponseEntity<List<RequestOutputDto>> response = statClient.getStatsRequest(
-                LocalDateTime.now().minusYears(1),
-                LocalDateTime.now().plusDays(1),
-                List.of("/events/" + event.getId()),
-                true
-        );
-
-        List<RequestOutputDto> viewStatsDto = response.getBody();
-
-        if (viewStatsDto != null) {
-            event.setViews(viewStatsDto.size());
-        } else {
-            event.setViews(0);
-        }
-
-        Event savedEvent = eventRepository.save(event);
-        log.info("Сохранено событие с id {}, с подсчётом просмотров.", savedEvent.getId());
-        return savedEvent;
+                .orElseGet(() -> locationRepository.save(location));
     }
 
 }
@@ -0,0 +1,107 @@
+package ru.practicum.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.client.StatClient;
+import ru.practicum.event.repository.EventCounterRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+
+// Просмотры событий из сервиса статистики.
+// Для сортировки по просмотрам в базе значение events.views периодически обновляется из статистики
+// пакетами предстоящих опубликованных событий, поэтому страница "популярных" событий строится по индексу.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EventViewsService {
+
+    private final EventCounterRepository eventCounterRepository;
+    private final StatClient statClient;
+
+    @Value("${events.views-sync.batch-size:500}")
+    private int batchSize;
+
+    // Количество уникальных просмотров для набора событий одним запросом к сервису статистики.
+    // exact = false - приблизительный подсчёт по скетчам, которого достаточно для публичных эндпоинтов;
+    // точный COUNT DISTINCT (exact = true) - только для административных и отчётных запросов
+    public Map<Long, Long> getViews(Collection<Long> eventIds, boolean exact) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Long> eventIdsByUri = new HashMap<>();
+        for (Long eventId : eventIds) {
+            eventIdsByUri.put("/events/" + eventId, eventId);
+        }
+
+        ResponseEntity<List<RequestOutputDto>> response = statClient.getStatsRequest(
+                LocalDateTime.now().minusYears(1),
+                LocalDateTime.now().plusDays(1),
+                new ArrayList<>(eventIdsByUri.keySet()),
+                true,
+                exact
+        );
+
+        Map<Long, Long> views = new HashMap<>();
+        if (response != null && response.getBody() != null) {
+            for (RequestOutputDto viewStats : response.getBody()) {
+                Long eventId = eventIdsByUri.get(viewStats.getUri());
+                if (eventId != null && viewStats.getHits() != null) {
+                    views.merge(eventId, viewStats.getHits(), Long::sum);
+                }
+            }
+        }
+        return views;
+    }
+
+    // Синхронизируются только предстоящие события: прошедшие не попадают в публичный поиск без периода,
+    // а их просмотры в events.views остаются последним записанным значением
+    @Scheduled(fixedDelayString = "${events.views-sync.interval-ms:60000}")
+    public void synchronizeViews() {
+        LocalDateTime now = LocalDateTime.now();
+        long afterId = 0;
+        int updated = 0;
+        SequencedMap<Long, Integer> events;
+        do {
+            events = eventCounterRepository.findUpcomingViews(now, afterId, batchSize);
+            if (events.isEmpty()) {
+                break;
+            }
+            updated += updateViews(events);
+            afterId = events.lastEntry().getKey();
+        } while (events.size() == batchSize);
+
+        if (updated > 0) {
+            log.info("Обновлено количество просмотров у {} событий.", updated);
+        }
+    }
+
+    // Записывает одним пакетом только просмотры, которые изменились с прошлой синхронизации
+    private int updateViews(Map<Long, Integer> currentViews) {
+        Map<Long, Long> views = getViews(currentViews.keySet(), false);
+        Map<Long, Integer> changed = new HashMap<>();
+        currentViews.forEach((eventId, current) -> {
+            int actual = views.getOrDefault(eventId, 0L).intValue();
+            if (actual != current) {
+                changed.put(eventId, actual);
+            }
+        });
+        if (!changed.isEmpty()) {
+            eventCounterRepository.updateViews(changed);
+        }
+        return changed.size();
+    }
+
+}
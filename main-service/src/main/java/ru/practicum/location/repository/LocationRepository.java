@@ -1,12 +1,16 @@
 package ru.practicum.location.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.location.model.Location;
 
 import java.util.Optional;
 
 public interface LocationRepository extends JpaRepository<Location, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Location> findByLatAndLon(Float lat, Float lon);
 
 }
@@ -0,0 +1,5 @@
+package ru.practicum.request.model;
+
+// Количество заявок события, результат группирующего запроса
+public record EventRequestCount(Long eventId, Long count) {
+}
@@ -1,24 +1,52 @@
 package ru.practicum.request.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.request.dto.ParticipationRequestDto;
+import ru.practicum.request.model.EventRequestCount;
 import ru.practicum.request.model.Request;
 import ru.practicum.request.model.StatusRequest;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
 
-    Optional<Request> findByRequester_IdAndEvent_Id(Long userId, Long eventId);
-
     List<Request> findByRequester_Id(Long userId);
 
     int countByEvent_IdAndStatus(Long eventId, StatusRequest status);
 
+    // Количество заявок в заданном статусе по событиям одним запросом; события без заявок в результат не входят
+    @Query("SELECT new ru.practicum.request.model.EventRequestCount(r.event.id, COUNT(r)) " +
+           "FROM Request r WHERE r.event.id IN :eventIds AND r.status = :status GROUP BY r.event.id")
+    List<EventRequestCount> countByEventIds(Collection<? extends Long> eventIds, StatusRequest status);
+
+    int countByIdInAndEvent_IdAndStatusNot(List<Long> requestIds, Long eventId, StatusRequest status);
+
     List<Request> findByEvent_Id(Long eventId);
 
     List<Request> findAllByIdIn(List<Long> requestIds);
 
     List<Request> findAllByEvent_Id(Long eventId);
 
+    // Заявки события из списка в заданном статусе в порядке подачи, без загрузки сущностей
+    @Query("SELECT new ru.practicum.request.dto.ParticipationRequestDto(r.created, r.event.id, r.id, r.requester.id, r.status) " +
+           "FROM Request r WHERE r.id IN :requestIds AND r.event.id = :eventId AND r.status = :status " +
+           "ORDER BY r.created, r.id")
+    List<ParticipationRequestDto> findDtosByIds(List<Long> requestIds, Long eventId, StatusRequest status, Limit limit);
+
+    @Query("SELECT new ru.practicum.request.dto.ParticipationRequestDto(r.created, r.event.id, r.id, r.requester.id, r.status) " +
+           "FROM Request r WHERE r.event.id = :eventId AND r.status = :status ORDER BY r.created, r.id")
+    List<ParticipationRequestDto> findDtosByEvent(Long eventId, StatusRequest status);
+
+    @Modifying
+    @Query("UPDATE Request r SET r.status = :newStatus WHERE r.id IN :requestIds AND r.status = :status")
+    int updateStatus(List<Long> requestIds, StatusRequest status, StatusRequest newStatus);
+
+    @Modifying
+    @Query("UPDATE Request r SET r.status = :newStatus WHERE r.event.id = :eventId AND r.status = :status")
+    int updateStatusByEvent(Long eventId, StatusRequest status, StatusRequest newStatus);
+
 }
@@ -2,11 +2,14 @@ package ru.practicum.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.model.State;
 import ru.practicum.event.repository.EventRepository;
+import ru.practicum.event.service.EventAdmissionCounter;
 import ru.practicum.exception.DataConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.request.dto.EventRequestStatusUpdateRequest;
@@ -22,7 +25,6 @@ import ru.practicum.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +35,7 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
+    private final EventAdmissionCounter eventAdmissionCounter;
 
     @Override
     public List<ParticipationRequestDto> getUserRequests(Long userId) {
@@ -43,16 +46,12 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
+    @Transactional
     public ParticipationRequestDto addUserRequest(Long userId, Long eventId) {
         User user = getUser(userId);
         Event event = getEvent(eventId);
         Request request = new Request();
 
-        if (getRequestByUserIdAndEventId(userId, eventId).isPresent()) {
-            log.error("Нельзя добавить повторный запрос.");
-            throw new DataConflictException("Нельзя добавить повторный запрос.");
-        }
-
         if (userId.equals(event.getInitiator().getId())) {
             log.error("Инициатор события не может добавить запрос на участие в своём событии.");
             throw new DataConflictException("Инициатор события не может добавить запрос на участие в своём событии.");
@@ -63,10 +62,9 @@ public class RequestServiceImpl implements RequestService {
             throw new DataConflictException("Нельзя участвовать в неопубликованном событии.");
         }
 
-        if (event.getParticipantLimit() > 0
-                && requestRepository.countByEvent_IdAndStatus(eventId, StatusRequest.CONFIRMED) >= event.getParticipantLimit()) {
-            log.error("У события с id {} достигнут лимит запросов на участие.", eventId);
-            throw new DataConflictException("У события с id " + eventId + "  достигнут лимит запросов на участие.");
+        // Быстрый отказ по счётчику; окончательно место занимается ниже, только для подтверждаемой заявки
+        if (event.getParticipantLimit() > 0 && eventAdmissionCounter.getConfirmed(event) >= event.getParticipantLimit()) {
+            throw participantLimitReached(eventId);
         }
 
         if (!event.getRequestModeration()) {
@@ -79,14 +77,25 @@ public class RequestServiceImpl implements RequestService {
             request.setStatus(StatusRequest.CONFIRMED);
         }
 
+        if (request.getStatus().equals(StatusRequest.CONFIRMED) && !eventAdmissionCounter.tryAdmit(event, 1)) {
+            throw participantLimitReached(eventId);
+        }
+
         request.setCreated(LocalDateTime.now());
         request.setEvent(event);
         request.setRequester(user);
 
-        return RequestMapper.toRequestDto(requestRepository.save(request));
+        // Повторная заявка отклоняется уникальным индексом (requester, event) при вставке, без отдельного поиска
+        try {
+            return RequestMapper.toRequestDto(requestRepository.saveAndFlush(request));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Нельзя добавить повторный запрос.");
+            throw new DataConflictException("Нельзя добавить повторный запрос.");
+        }
     }
 
     @Override
+    @Transactional
     public ParticipationRequestDto cancelUserRequest(Long userId, Long requestId) {
         getUser(userId);
         getEvent(requestId);
@@ -97,6 +106,10 @@ public class RequestServiceImpl implements RequestService {
             throw new NotFoundException("Запрос пользователя с id " + userId + " для участие в событии с id "
                     + requestId + " не найден в системе.");
         }
+        // Отмена подтверждённой заявки освобождает место в событии
+        if (request.getStatus().equals(StatusRequest.CONFIRMED)) {
+            eventAdmissionCounter.release(request.getEvent().getId());
+        }
         request.setStatus(StatusRequest.CANCELED);
         return RequestMapper.toRequestDto(requestRepository.save(request));
     }
@@ -123,53 +136,71 @@ public class RequestServiceImpl implements RequestService {
                                                               EventRequestStatusUpdateRequest updateRequest) {
         getUser(userId);
         Event event = getEvent(eventId);
-        List<Request> requests = requestRepository.findByEvent_Id(eventId);
+        List<Long> requestIds = updateRequest.getRequestIds() != null ? updateRequest.getRequestIds() : List.of();
 
+        // статус можно изменить только у заявок, находящихся в состоянии ожидания
+        if (!requestIds.isEmpty()
+                && requestRepository.countByIdInAndEvent_IdAndStatusNot(requestIds, eventId, StatusRequest.PENDING) > 0) {
+            log.error("Статус можно изменить только у заявок в состоянии ожидания, событие с id {}.", eventId);
+            throw new DataConflictException("Статус можно изменить только у заявок в состоянии ожидания.");
+        }
 
-        int participantLimit = event.getParticipantLimit(); // Лимит
-        int quantityConfirmedRequest = event.getConfirmedRequests(); // Кол-во согласованных заявок
-
-        // Результаты
-        EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult();
-        List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
-        List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
-
-        // нельзя подтвердить заявку, если уже достигнут лимит по заявкам на данное событие
-        if (quantityConfirmedRequest >= participantLimit) {
-            log.error("Достигнут лимит по заявкам на событие с id {}.", event);
-            throw new DataConflictException("Достигнут лимит по заявкам на событие с id " + event.getId());
+        // Результаты: только заявки, статус которых изменён
+        EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult(new ArrayList<>(), new ArrayList<>());
+        if (requestIds.isEmpty()) {
+            return result;
         }
 
         if (updateRequest.getStatus().equals(StatusRequest.CONFIRMED)) {
-            for (Request request : requests) {
-                if (quantityConfirmedRequest < participantLimit) {
-                    request.setStatus(StatusRequest.CONFIRMED);
-                    confirmedRequests.add(RequestMapper.toRequestDto(request));
-                    quantityConfirmedRequest++;
-                } else {
-                    request.setStatus(StatusRequest.REJECTED);
-                    rejectedRequests.add(RequestMapper.toRequestDto(request));
+            int participantLimit = event.getParticipantLimit(); // Лимит, 0 - без ограничений
+            int quantityConfirmedRequest = eventAdmissionCounter.getConfirmed(event); // Кол-во согласованных заявок
+
+            // нельзя подтвердить заявку, если уже достигнут лимит по заявкам на данное событие
+            if (participantLimit > 0 && quantityConfirmedRequest >= participantLimit) {
+                throw participantLimitReached(eventId);
+            }
+
+            // Подтверждаются первые по времени подачи заявки в пределах свободных мест
+            Limit freePlaces = participantLimit > 0 ? Limit.of(participantLimit - quantityConfirmedRequest) : Limit.unlimited();
+            List<ParticipationRequestDto> confirmed = requestRepository.findDtosByIds(requestIds, eventId,
+                    StatusRequest.PENDING, freePlaces);
+            if (!confirmed.isEmpty()) {
+                // Занять подтверждённые места; если параллельные заявки уже заняли их, изменения откатываются
+                if (!eventAdmissionCounter.tryAdmit(event, confirmed.size())) {
+                    throw participantLimitReached(eventId);
                 }
+                requestRepository.updateStatus(confirmed.stream().map(ParticipationRequestDto::getId).toList(),
+                        StatusRequest.PENDING, StatusRequest.CONFIRMED);
+                confirmed.forEach(request -> request.setStatus(StatusRequest.CONFIRMED));
+            }
+            result.setConfirmedRequests(confirmed);
+
+            // если при подтверждении лимит исчерпан, все оставшиеся неподтверждённые заявки события отклоняются
+            if (participantLimit > 0 && quantityConfirmedRequest + confirmed.size() >= participantLimit) {
+                List<ParticipationRequestDto> rejected = requestRepository.findDtosByEvent(eventId, StatusRequest.PENDING);
+                requestRepository.updateStatusByEvent(eventId, StatusRequest.PENDING, StatusRequest.REJECTED);
+                rejected.forEach(request -> request.setStatus(StatusRequest.REJECTED));
+                result.setRejectedRequests(rejected);
             }
         } else {
-            for (Request request : requests) {
-                request.setStatus(StatusRequest.REJECTED);
-                rejectedRequests.add(RequestMapper.toRequestDto(request));
+            List<ParticipationRequestDto> rejected = requestRepository.findDtosByIds(requestIds, eventId,
+                    StatusRequest.PENDING, Limit.unlimited());
+            if (!rejected.isEmpty()) {
+                requestRepository.updateStatus(rejected.stream().map(ParticipationRequestDto::getId).toList(),
+                        StatusRequest.PENDING, StatusRequest.REJECTED);
             }
+            rejected.forEach(request -> request.setStatus(StatusRequest.REJECTED));
+            result.setRejectedRequests(rejected);
         }
 
-        // Сохранить событие с обновленной информации о подтверждениях
-        event.setConfirmedRequests(quantityConfirmedRequest);
-        eventRepository.save(event);
-
-        // Сохранить обновленные запросы
-        requestRepository.saveAll(requests);
-
-        result.setConfirmedRequests(confirmedRequests);
-        result.setRejectedRequests(rejectedRequests);
         return result;
     }
 
+    private DataConflictException participantLimitReached(Long eventId) {
+        log.error("У события с id {} достигнут лимит запросов на участие.", eventId);
+        return new DataConflictException("У события с id " + eventId + "  достигнут лимит запросов на участие.");
+    }
+
     private User getUser(Long userId) {
         return userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("Пользователь с id " + userId + " не найден в системе."));
@@ -180,10 +211,6 @@ public class RequestServiceImpl implements RequestService {
                 new NotFoundException("Событие с id " + eventId + " не найдено в системе."));
     }
 
-    private Optional<Request> getRequestByUserIdAndEventId(Long userId, Long eventId) {
-        return requestRepository.findByRequester_IdAndEvent_Id(userId, eventId);
-    }
-
     private Request getRequestById(Long requestId) {
         return requestRepository.findById(requestId).orElseThrow(() ->
                 new NotFoundException("Запрос на участие не найден в системе."));
@@ -0,0 +1,37 @@
+-- Индексы полнотекстового поиска событий (только PostgreSQL)
+
+-- Триграммные GIN-индексы позволяют выполнять поиск подстроки lower(...) LIKE '%текст%' по индексу,
+-- а функция similarity используется для сортировки результатов по релевантности.
+-- Расширение pg_trgm необязательно: если роли не хватает прав на CREATE EXTENSION или расширение
+-- не установлено на сервере, сервис запускается без триграммных индексов, поиск остаётся полным просмотром.
+-- Тела блоков записаны в одинарных кавычках, так как скрипты инициализации Spring не разбирают $$.
+
+DO '
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION
+    WHEN insufficient_privilege OR undefined_file OR feature_not_supported THEN
+        RAISE WARNING ''Расширение pg_trgm недоступно, триграммные индексы не созданы: %'', SQLERRM;
+END';
+
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        CREATE INDEX IF NOT EXISTS events_annotation_trgm_idx ON events USING gin (lower(annotation) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS events_description_trgm_idx ON events USING gin (lower(description) gin_trgm_ops);
+    END IF;
+END';
+
+-- Релевантность текста для сортировки RELEVANCE (см. TextSearchFunctionContributor):
+-- триграммная похожесть, если pg_trgm доступно, иначе 1, если строка найдена, и 0, если нет
+
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        CREATE OR REPLACE FUNCTION event_text_rank(value text, search text) RETURNS float8
+            LANGUAGE sql IMMUTABLE STRICT AS $f$ SELECT similarity(value, search)::float8 $f$;
+    ELSE
+        CREATE OR REPLACE FUNCTION event_text_rank(value text, search text) RETURNS float8
+            LANGUAGE sql IMMUTABLE STRICT AS $f$ SELECT CASE WHEN strpos(value, search) > 0 THEN 1.0 ELSE 0.0 END $f$;
+    END IF;
+END';
@@ -102,7 +102,7 @@ create TABLE IF NOT EXISTS events (
 	initiator BIGINT NOT NULL, -- Пользователь
 	published_on timestamp NULL, -- Дата и время публикации события (в формате "yyyy-MM-dd HH:mm:ss")
 	state varchar(15) NULL, -- Список состояний жизненного цикла события PENDING, PUBLISHED, CANCELED
-	"views" BIGINT DEFAULT 0 NULL, -- Количество просмотрев события
+	views BIGINT DEFAULT 0 NULL, -- Количество просмотрев события
 	CONSTRAINT events_pk PRIMARY KEY (id),
 	CONSTRAINT events_categories_fk FOREIGN KEY (category) REFERENCES categories(id),
 	CONSTRAINT events_locations_fk FOREIGN KEY (location) REFERENCES locations(id),
@@ -110,6 +110,9 @@ create TABLE IF NOT EXISTS events (
 );
 comment on table events is 'Событие';
 
+-- Сортировка событий по просмотрам
+create INDEX IF NOT EXISTS events_views_idx ON events (views DESC, id);
+
 -- Column comments
 
 comment on column events.id is 'Идентификатор события';
@@ -127,7 +130,7 @@ comment on column events.created_on is 'Дата и время создания
 comment on column events.initiator is 'Пользователь';
 comment on column events.published_on is 'Дата и время публикации события (в формате "yyyy-MM-dd HH:mm:ss")';
 comment on column events.state is 'Список состояний жизненного цикла события PENDING, PUBLISHED, CANCELED';
-comment on column events."views" is 'Количество просмотрев события';
+comment on column events.views is 'Количество просмотрев события';
 
 
 -- participation_request definition
@@ -147,6 +150,23 @@ create TABLE IF NOT EXISTS participation_request (
 	CONSTRAINT requests_users_fk FOREIGN KEY (requester) REFERENCES users(id)
 );
 
+-- Повторные заявки пользователя на событие, поданные до появления уникального индекса, удаляются,
+-- остаётся самая ранняя. Когда индекс уже создан, повторов нет и запрос ничего не удаляет
+DELETE FROM participation_request r
+WHERE EXISTS (SELECT 1 FROM participation_request d WHERE d.requester = r.requester AND d.event = r.event AND d.id < r.id);
+
+-- Пользователь может подать только одну заявку на событие; повторная вставка отклоняется индексом
+create UNIQUE INDEX IF NOT EXISTS requests_requester_event_uq ON participation_request (requester, event);
+
+-- Подсчёт подтверждённых заявок события и сверка счётчиков читают только индекс
+create INDEX IF NOT EXISTS requests_event_status_idx ON participation_request (event, status);
+
+-- Счётчик подтверждённых заявок пересчитывается по оставшимся заявкам; изменяются только расходящиеся строки
+UPDATE events e
+SET confirmed_requests = (SELECT COUNT(*) FROM participation_request r WHERE r.event = e.id AND r.status = 'CONFIRMED')
+WHERE COALESCE(e.confirmed_requests, 0)
+    <> (SELECT COUNT(*) FROM participation_request r WHERE r.event = e.id AND r.status = 'CONFIRMED');
+
 -- Column comments
 
 comment on column participation_request.id is 'Идентификатор заявки';
@@ -199,6 +219,11 @@ create TABLE IF NOT EXISTS comments (
 	CONSTRAINT comments_users_fk FOREIGN KEY (author) REFERENCES users(id)
 );
 
+-- Ленты комментариев события и автора по дате создания и по лайкам; id в конце - порядок курсора
+create INDEX IF NOT EXISTS comments_event_created_idx ON comments (event, created, id);
+create INDEX IF NOT EXISTS comments_event_likes_idx ON comments (event, likes DESC, id);
+create INDEX IF NOT EXISTS comments_author_created_idx ON comments (author, created, id);
+
 -- Column comments
 
 comment on column comments.id is 'Идентификатор комментария';
@@ -227,6 +252,37 @@ CREATE TABLE IF NOT EXISTS likes (
     CONSTRAINT likes_users_fk FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+-- Повторные записи реакций пользователя на комментарий, сделанные до появления уникального индекса,
+-- объединяются в самую раннюю: её флаги дополняются флагами повторов, затем повторы удаляются.
+-- Когда индекс уже создан, повторов нет и запросы ничего не изменяют
+UPDATE likes l
+SET likes = TRUE
+WHERE (l.likes IS NULL OR l.likes = FALSE)
+  AND NOT EXISTS (SELECT 1 FROM likes p WHERE p.comment_id = l.comment_id AND p.user_id = l.user_id AND p.id < l.id)
+  AND EXISTS (SELECT 1 FROM likes d WHERE d.comment_id = l.comment_id AND d.user_id = l.user_id AND d.id > l.id
+      AND d.likes = TRUE);
+
+UPDATE likes l
+SET dislike = TRUE
+WHERE (l.dislike IS NULL OR l.dislike = FALSE)
+  AND NOT EXISTS (SELECT 1 FROM likes p WHERE p.comment_id = l.comment_id AND p.user_id = l.user_id AND p.id < l.id)
+  AND EXISTS (SELECT 1 FROM likes d WHERE d.comment_id = l.comment_id AND d.user_id = l.user_id AND d.id > l.id
+      AND d.dislike = TRUE);
+
+DELETE FROM likes l
+WHERE EXISTS (SELECT 1 FROM likes d WHERE d.comment_id = l.comment_id AND d.user_id = l.user_id AND d.id < l.id);
+
+-- Одна запись реакций пользователя на комментарий
+create UNIQUE INDEX IF NOT EXISTS likes_comment_user_uq ON likes (comment_id, user_id);
+
+-- Счётчики лайков и дизлайков комментариев пересчитываются по оставшимся записям;
+-- изменяются только расходящиеся строки
+UPDATE comments c
+SET likes = (SELECT COUNT(*) FROM likes l WHERE l.comment_id = c.id AND l.likes = TRUE),
+    dislikes = (SELECT COUNT(*) FROM likes l WHERE l.comment_id = c.id AND l.dislike = TRUE)
+WHERE COALESCE(c.likes, 0) <> (SELECT COUNT(*) FROM likes l WHERE l.comment_id = c.id AND l.likes = TRUE)
+   OR COALESCE(c.dislikes, 0) <> (SELECT COUNT(*) FROM likes l WHERE l.comment_id = c.id AND l.dislike = TRUE);
+
 -- Column comments
 
 COMMENT ON COLUMN likes.id IS 'Идентификатор записи';
@@ -0,0 +1,94 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Повторный запуск schema.sql на базе с данными, записанными до появления уникальных индексов:
+// повторы удаляются до создания индексов, счётчики пересчитываются по оставшимся строкам
+@SpringBootTest(classes = MainService.class)
+class SchemaTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void schemaRemovesDuplicateRequestsAndRecountsConfirmed() {
+        Long eventId = fixtures.addEvent(fixtures.addUser(), 0, true).getId();
+        Long requesterId = fixtures.addUser();
+        Long otherId = fixtures.addUser();
+        jdbcTemplate.execute("DROP INDEX requests_requester_event_uq");
+        Long earliestId = addRequest(eventId, requesterId, "PENDING");
+        addRequest(eventId, requesterId, "CONFIRMED");
+        addRequest(eventId, requesterId, "CONFIRMED");
+        addRequest(eventId, otherId, "CONFIRMED");
+        jdbcTemplate.update("UPDATE events SET confirmed_requests = 3 WHERE id = ?", eventId);
+
+        runSchema();
+
+        assertEquals(earliestId, jdbcTemplate.queryForObject(
+                "SELECT id FROM participation_request WHERE event = ? AND requester = ?",
+                Long.class, eventId, requesterId));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?",
+                Long.class, eventId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'REQUESTS_REQUESTER_EVENT_UQ'",
+                Integer.class));
+    }
+
+    @Test
+    void schemaMergesDuplicateLikesAndRecountsReactions() {
+        Long eventId = fixtures.addEvent(fixtures.addUser(), 0, false).getId();
+        Long userId = fixtures.addUser();
+        Long otherId = fixtures.addUser();
+        jdbcTemplate.update("INSERT INTO comments (event, author, created, text, state, likes, dislikes) " +
+                "VALUES (?, ?, ?, 'Комментарий', 'PUBLISHED', 5, 2)", eventId, userId, LocalDateTime.now());
+        Long commentId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM comments", Long.class);
+        jdbcTemplate.execute("DROP INDEX likes_comment_user_uq");
+        Long earliestId = addLike(commentId, userId, true, null);
+        addLike(commentId, userId, true, false);
+        addLike(commentId, userId, null, true);
+        addLike(commentId, otherId, true, null);
+
+        runSchema();
+
+        assertEquals(List.of(earliestId), jdbcTemplate.queryForList(
+                "SELECT id FROM likes WHERE comment_id = ? AND user_id = ? AND likes = TRUE AND dislike = TRUE",
+                Long.class, commentId, userId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE comment_id = ?",
+                Integer.class, commentId));
+        assertEquals(List.of(2L, 1L), jdbcTemplate.queryForObject("SELECT likes, dislikes FROM comments WHERE id = ?",
+                (rs, rowNum) -> List.of(rs.getLong("likes"), rs.getLong("dislikes")), commentId));
+    }
+
+    private Long addLike(Long commentId, Long userId, Boolean like, Boolean dislike) {
+        jdbcTemplate.update("INSERT INTO likes (comment_id, user_id, likes, dislike) VALUES (?, ?, ?, ?)",
+                commentId, userId, like, dislike);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM likes", Long.class);
+    }
+
+    private Long addRequest(Long eventId, Long requesterId, String status) {
+        jdbcTemplate.update("INSERT INTO participation_request (created, event, requester, status) VALUES (?, ?, ?, ?)",
+                LocalDateTime.now(), eventId, requesterId, status);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM participation_request", Long.class);
+    }
+
+    private void runSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.category.dto.NewCategoryDto;
+import ru.practicum.category.service.CategoryService;
+import ru.practicum.event.dto.EventFullDto;
+import ru.practicum.event.dto.NewEventDto;
+import ru.practicum.event.dto.UpdateEventUserRequest;
+import ru.practicum.event.model.StateAction;
+import ru.practicum.event.service.EventService;
+import ru.practicum.location.dto.LocationDto;
+import ru.practicum.user.dto.NewUserRequest;
+import ru.practicum.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Общие тестовые данные: пользователи и события создаются через сервисы, как при обращении к API
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final UserService userService;
+    private final CategoryService categoryService;
+    private final EventService eventService;
+
+    public Long addUser() {
+        String name = UUID.randomUUID().toString();
+        return userService.addUser(new NewUserRequest(name + "@mail.ru", name)).getId();
+    }
+
+    // Событие через сутки в собственной категории и собственном месте проведения, чтобы загрузка связей
+    // каждого события была видна в статистике. Дата округлена до секунд, как её хранит база
+    public EventFullDto addEvent(Long initiatorId, int participantLimit, boolean requestModeration) {
+        Long categoryId = categoryService.addCategory(new NewCategoryDto(UUID.randomUUID().toString())).getId();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        NewEventDto newEvent = new NewEventDto("Аннотация тестового события", categoryId,
+                "Описание тестового события", LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS),
+                new LocationDto(random.nextFloat(-90, 90), random.nextFloat(-180, 180)), false, participantLimit,
+                requestModeration, "Тестовое событие");
+        return eventService.addEvent(initiatorId, newEvent);
+    }
+
+    public EventFullDto publish(Long eventId) {
+        UpdateEventUserRequest publish = new UpdateEventUserRequest();
+        publish.setStateAction(StateAction.PUBLISH_EVENT);
+        return eventService.updateEventByAdmin(eventId, publish);
+    }
+
+    public EventFullDto addPublishedEvent(Long initiatorId, int participantLimit, boolean requestModeration) {
+        return publish(addEvent(initiatorId, participantLimit, requestModeration).getId());
+    }
+}
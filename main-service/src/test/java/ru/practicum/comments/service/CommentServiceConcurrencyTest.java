@@ -0,0 +1,99 @@
+package ru.practicum.comments.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.comments.dto.LikeDto;
+import ru.practicum.comments.dto.NewCommentDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Параллельные реакции на комментарий: каждая реакция пользователя учитывается в счётчиках ровно один раз
+@SpringBootTest(classes = MainService.class)
+class CommentServiceConcurrencyTest {
+
+    private static final int USERS = 30;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void likeCommentCountsEachReactionOnce() throws Exception {
+        Long authorId = fixtures.addUser();
+        Long eventId = fixtures.addEvent(fixtures.addUser(), 0, true).getId();
+        Long commentId = inSession(() -> commentService.addComment(authorId,
+                new NewCommentDto(eventId, "Комментарий для проверки реакций")).getId());
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(fixtures.addUser());
+        }
+
+        // Каждый пользователь одновременно ставит лайк, дизлайк и повторный лайк
+        List<LikeDto> reactions = List.of(new LikeDto(true, null), new LikeDto(null, true), new LikeDto(true, null));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(USERS * reactions.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : users) {
+                for (LikeDto reaction : reactions) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return inSession(() -> commentService.likeComment(userId, commentId, reaction));
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> counters = jdbcTemplate.queryForMap(
+                "SELECT likes, dislikes FROM comments WHERE id = ?", commentId);
+        assertEquals(USERS, ((Number) counters.get("likes")).intValue());
+        assertEquals(USERS, ((Number) counters.get("dislikes")).intValue());
+        assertEquals(USERS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM likes WHERE comment_id = ? AND likes AND dislike", Integer.class, commentId));
+    }
+
+    // Вызов сервиса с открытым EntityManager, как при open-in-view в HTTP-запросе:
+    // полный CommentDto догружает событие комментария вне транзакции сервиса
+    private <T> T inSession(Callable<T> call) throws Exception {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            return call.call();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.comments.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.comments.dto.CommentShortDto;
+import ru.practicum.comments.dto.NewCommentDto;
+import ru.practicum.comments.model.StateComment;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.service.EventViewsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Лента комментариев не загружает события: количество SQL-запросов не зависит от числа комментариев,
+// а вместо события в CommentShortDto передаётся его id.
+// Сервис просмотров заменён заглушкой, чтобы фоновая синхронизация просмотров не попадала в статистику Hibernate
+@SpringBootTest(classes = MainService.class)
+class CommentServiceStatementCountTest {
+
+    private static final int COMMENTS = 10;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private EventViewsService eventViewsService;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void getCommentByEventReadsFeedWithoutEvents() {
+        Long oneCommentEventId = fixtures.addEvent(fixtures.addUser(), 0, true).getId();
+        addPublishedComment(fixtures.addUser(), oneCommentEventId);
+        Long eventId = fixtures.addEvent(fixtures.addUser(), 0, true).getId();
+        List<Long> authors = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            Long authorId = fixtures.addUser();
+            addPublishedComment(authorId, eventId);
+            authors.add(authorId);
+        }
+
+        long oneCommentStatements = countStatements(() -> commentService.getCommentByEvent(oneCommentEventId,
+                0, COMMENTS * 2, null, null).getComments(), 1);
+        assertEquals(0, getEventLoadCount());
+        List<CommentShortDto> feed = new ArrayList<>();
+        long feedStatements = countStatements(() -> {
+            feed.addAll(commentService.getCommentByEvent(eventId, 0, COMMENTS * 2, null, null).getComments());
+            return feed;
+        }, COMMENTS);
+        assertEquals(0, getEventLoadCount());
+
+        assertEquals(oneCommentStatements, feedStatements);
+        assertEquals(authors, feed.stream().map(comment -> comment.getAuthor().getId()).toList());
+        feed.forEach(comment -> assertEquals(eventId, comment.getEvent()));
+    }
+
+    @Test
+    void getCommentByAuthorReadsFeedWithoutEvents() {
+        Long oneCommentAuthorId = fixtures.addUser();
+        addPublishedComment(oneCommentAuthorId, fixtures.addEvent(fixtures.addUser(), 0, true).getId());
+        Long authorId = fixtures.addUser();
+        List<Long> events = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            Long eventId = fixtures.addEvent(fixtures.addUser(), 0, true).getId();
+            addPublishedComment(authorId, eventId);
+            events.add(eventId);
+        }
+
+        long oneCommentStatements = countStatements(() -> commentService.getCommentByAuthor(oneCommentAuthorId,
+                0, COMMENTS * 2, null, null).getComments(), 1);
+        assertEquals(0, getEventLoadCount());
+        List<CommentShortDto> feed = new ArrayList<>();
+        long feedStatements = countStatements(() -> {
+            feed.addAll(commentService.getCommentByAuthor(authorId, 0, COMMENTS * 2, null, null).getComments());
+            return feed;
+        }, COMMENTS);
+        assertEquals(0, getEventLoadCount());
+
+        assertEquals(oneCommentStatements, feedStatements);
+        assertEquals(events, feed.stream().map(CommentShortDto::getEvent).toList());
+        feed.forEach(comment -> assertEquals(authorId, comment.getAuthor().getId()));
+    }
+
+    // Число подготовленных запросов при чтении ленты из expectedSize комментариев.
+    // Кэш второго уровня очищается, чтобы связанные сущности не находились в нём вместо базы
+    private long countStatements(Supplier<List<CommentShortDto>> feed, int expectedSize) {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        assertEquals(expectedSize, feed.get().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Сколько сущностей Event загружено с момента последнего замера
+    private long getEventLoadCount() {
+        return statistics.getEntityStatistics(Event.class.getName()).getLoadCount();
+    }
+
+    // Комментарий создаётся на модерации, в ленту попадает после публикации администратором.
+    // Полный CommentDto содержит событие, поэтому ответы читаются в транзакции
+    private void addPublishedComment(Long authorId, Long eventId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long commentId = commentService.addComment(authorId,
+                    new NewCommentDto(eventId, "Комментарий к событию " + eventId)).getId();
+            commentService.adminChangeStateComment(authorId, commentId, StateComment.PUBLISHED);
+        });
+    }
+}
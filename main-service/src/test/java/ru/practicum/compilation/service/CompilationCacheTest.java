@@ -0,0 +1,74 @@
+package ru.practicum.compilation.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.compilation.dto.CompilationDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// Кэш списков подборок: загрузка в транзакции только чтения при промахе и сброс без гонки с загрузкой
+class CompilationCacheTest {
+
+    private PlatformTransactionManager transactionManager;
+    private CompilationCache compilationCache;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        compilationCache = new CompilationCache(60_000, 100, new SimpleMeterRegistry(), transactionManager);
+    }
+
+    @Test
+    void loaderRunsInReadOnlyTransactionOnlyOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+
+        compilationCache.get(true, 0, 10, () -> compilations("Первая", loads));
+        List<CompilationDto> cached = compilationCache.get(true, 0, 10, () -> compilations("Вторая", loads));
+
+        assertEquals("Первая", cached.getFirst().getTitle());
+        assertEquals(1, loads.get());
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+    }
+
+    @Test
+    void cachedListIsNotReturnedAfterInvalidation() {
+        AtomicInteger loads = new AtomicInteger();
+        compilationCache.get(null, 0, 10, () -> compilations("Старая", loads));
+
+        compilationCache.invalidate();
+
+        assertEquals("Новая", compilationCache.get(null, 0, 10, () -> compilations("Новая", loads))
+                .getFirst().getTitle());
+        assertEquals(2, loads.get());
+    }
+
+    // Список, прочитанный до сброса, не попадает в кэш, даже если загрузка завершилась после сброса
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        List<CompilationDto> stale = compilationCache.get(false, 0, 10, () -> {
+            List<CompilationDto> compilations = compilations("Старая", loads);
+            compilationCache.invalidate();
+            return compilations;
+        });
+
+        assertEquals("Старая", stale.getFirst().getTitle());
+        assertEquals("Новая", compilationCache.get(false, 0, 10, () -> compilations("Новая", loads))
+                .getFirst().getTitle());
+        assertEquals(2, loads.get());
+    }
+
+    private static List<CompilationDto> compilations(String title, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of(new CompilationDto(List.of(), 1L, false, title));
+    }
+}
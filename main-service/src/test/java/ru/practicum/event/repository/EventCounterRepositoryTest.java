@@ -0,0 +1,55 @@
+package ru.practicum.event.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.request.service.RequestService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Сверка events.confirmed_requests с подтверждёнными заявками
+@SpringBootTest(classes = MainService.class)
+class EventCounterRepositoryTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private EventCounterRepository eventCounterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcileConfirmedRequestsFixesOnlyDriftedEvents() {
+        Long withRequestsId = fixtures.addPublishedEvent(fixtures.addUser(), 0, false).getId();
+        requestService.addUserRequest(fixtures.addUser(), withRequestsId);
+        requestService.addUserRequest(fixtures.addUser(), withRequestsId);
+        Long withoutRequestsId = fixtures.addPublishedEvent(fixtures.addUser(), 0, false).getId();
+        Long consistentId = fixtures.addPublishedEvent(fixtures.addUser(), 0, false).getId();
+        requestService.addUserRequest(fixtures.addUser(), consistentId);
+        setConfirmedRequests(withRequestsId, 0);
+        setConfirmedRequests(withoutRequestsId, 5);
+
+        assertTrue(eventCounterRepository.reconcileConfirmedRequests() >= 2);
+
+        assertEquals(2, getConfirmedRequests(withRequestsId));
+        assertEquals(0, getConfirmedRequests(withoutRequestsId));
+        assertEquals(1, getConfirmedRequests(consistentId));
+    }
+
+    private void setConfirmedRequests(Long eventId, int confirmed) {
+        jdbcTemplate.update("UPDATE events SET confirmed_requests = ? WHERE id = ?", confirmed, eventId);
+    }
+
+    private int getConfirmedRequests(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Integer.class, eventId);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.event.dto.EventShortDto;
+import ru.practicum.event.dto.UpdateEventUserRequest;
+import ru.practicum.event.model.EventSearchParameters;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Поиск по тексту в индексе в памяти возвращает те же события, что и запрос к базе.
+// Сервис просмотров заменён заглушкой, чтобы поиск не обращался к сервису статистики
+@SpringBootTest(classes = MainService.class)
+@TestPropertySource(properties = "events.search.in-memory.enabled=true")
+class EventSearchIndexTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    @MockBean
+    private EventViewsService eventViewsService;
+
+    private final List<Long> categories = new ArrayList<>();
+    private final List<Long> eventIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        addEvent("Концерт классической музыки в филармонии", "Вечер органной музыки при свечах");
+        addEvent("Джазовый концерт в клубе", "Импровизации до полуночи, вход свободный");
+        addEvent("Лекция о музыке эпохи барокко", "Мастер-класс по игре на клавесине");
+    }
+
+    @Test
+    void searchByTextMatchesDatabase() {
+        for (String text : List.of("музык", "КОНЦЕРТ", "цер", "органной музыки", "музыки органной",
+                "ер-кл", "вечер органной", "в клубе", "тестовое", "свечах", "нет такого")) {
+            assertEquals(searchInDatabase(text), searchInIndex(text), "Поиск по тексту «" + text + "»");
+        }
+        assertEquals(Set.of(eventIds.get(0), eventIds.get(2)), searchInIndex("музык"));
+        assertEquals(Set.of(eventIds.get(2)), searchInIndex("ер-кл"));
+        assertEquals(Set.of(), searchInIndex("музыки органной"));
+    }
+
+    // Изменённый текст опубликованного события сразу находится в индексе, старый - уже нет
+    @Test
+    void searchByTextFindsUpdatedText() {
+        UpdateEventUserRequest update = new UpdateEventUserRequest();
+        update.setDescription("Камерный оркестр и хор");
+        eventService.updateEventByAdmin(eventIds.get(1), update);
+
+        assertEquals(Set.of(eventIds.get(1)), searchInIndex("оркестр"));
+        assertEquals(Set.of(), searchInIndex("полуночи"));
+        assertEquals(searchInDatabase("оркестр"), searchInIndex("оркестр"));
+    }
+
+    private void addEvent(String annotation, String description) {
+        Long eventId = fixtures.addEvent(fixtures.addUser(), 0, false).getId();
+        UpdateEventUserRequest update = new UpdateEventUserRequest();
+        update.setAnnotation(annotation);
+        update.setDescription(description);
+        eventService.updateEventByAdmin(eventId, update);
+        categories.add(fixtures.publish(eventId).getCategory().getId());
+        eventIds.add(eventId);
+    }
+
+    private Set<Long> searchInIndex(String text) {
+        EventSearchParameters params = byText(text, "EVENT_DATE");
+        assertTrue(eventSearchIndex.canSearch(params));
+        return search(params);
+    }
+
+    // Сортировка по просмотрам индексом не поддерживается, поэтому поиск выполняется запросом к базе
+    private Set<Long> searchInDatabase(String text) {
+        EventSearchParameters params = byText(text, "VIEWS");
+        assertFalse(eventSearchIndex.canSearch(params));
+        return search(params);
+    }
+
+    private Set<Long> search(EventSearchParameters params) {
+        return eventService.getEventsByFilterSearch(params).getEvents().stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private EventSearchParameters byText(String text, String sort) {
+        return EventSearchParameters.builder()
+                .text(text)
+                .categories(categories)
+                .sort(sort)
+                .from(0)
+                .size(10)
+                .build();
+    }
+}
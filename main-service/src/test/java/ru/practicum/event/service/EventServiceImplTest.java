@@ -0,0 +1,96 @@
+package ru.practicum.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.category.dto.NewCategoryDto;
+import ru.practicum.category.service.CategoryService;
+import ru.practicum.event.dto.EventFullDto;
+import ru.practicum.event.dto.EventShortDto;
+import ru.practicum.event.dto.NewEventDto;
+import ru.practicum.event.model.EventSearchParameters;
+import ru.practicum.location.dto.LocationDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Создание событий инициатором и публичный поиск.
+// Сервис просмотров заменён заглушкой, чтобы поиск не обращался к сервису статистики
+@SpringBootTest(classes = MainService.class)
+class EventServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private EventViewsService eventViewsService;
+
+    // Место проведения с теми же координатами используется повторно, новая запись не создаётся
+    @Test
+    void addEventReusesExistingLocation() {
+        Long categoryId = categoryService.addCategory(new NewCategoryDto(UUID.randomUUID().toString())).getId();
+        LocationDto location = new LocationDto(-89.5f, 179.5f);
+        int locations = countLocations();
+
+        Long firstId = eventService.addEvent(fixtures.addUser(), newEvent(categoryId, location)).getId();
+        Long secondId = eventService.addEvent(fixtures.addUser(), newEvent(categoryId, location)).getId();
+
+        assertEquals(getLocationId(firstId), getLocationId(secondId));
+        assertEquals(locations + 1, countLocations());
+    }
+
+    // Поиск с непустым списком категорий возвращает события только этих категорий
+    @Test
+    void getEventsByFilterSearchFiltersByCategories() {
+        EventFullDto first = fixtures.addPublishedEvent(fixtures.addUser(), 0, false);
+        EventFullDto second = fixtures.addPublishedEvent(fixtures.addUser(), 0, false);
+        Long firstCategoryId = first.getCategory().getId();
+        Long secondCategoryId = second.getCategory().getId();
+
+        assertEquals(Set.of(first.getId()), searchByCategories(List.of(firstCategoryId)));
+        assertEquals(Set.of(first.getId(), second.getId()),
+                searchByCategories(List.of(firstCategoryId, secondCategoryId)));
+    }
+
+    private Set<Long> searchByCategories(List<Long> categories) {
+        EventSearchParameters params = EventSearchParameters.builder()
+                .categories(categories)
+                .from(0)
+                .size(10)
+                .build();
+        return eventService.getEventsByFilterSearch(params).getEvents().stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private NewEventDto newEvent(Long categoryId, LocationDto location) {
+        return new NewEventDto("Аннотация события в общем месте", categoryId, "Описание события в общем месте",
+                LocalDateTime.now().plusDays(1), location, false, 0, true, "Событие в общем месте");
+    }
+
+    private int countLocations() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM locations", Integer.class);
+    }
+
+    private Long getLocationId(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT location FROM events WHERE id = ?", Long.class, eventId);
+    }
+}
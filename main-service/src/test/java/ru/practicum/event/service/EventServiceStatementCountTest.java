@@ -0,0 +1,179 @@
+package ru.practicum.event.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.event.dto.EventFullDto;
+import ru.practicum.event.dto.EventShortDto;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventSearchParameters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Количество SQL-запросов при чтении страницы событий не должно зависеть от числа событий на странице,
+// а списки EventShortDto читаются проекцией без загрузки сущностей Event.
+// Сервис просмотров заменён заглушкой, чтобы фоновая синхронизация просмотров не попадала в статистику Hibernate
+@SpringBootTest(classes = MainService.class)
+class EventServiceStatementCountTest {
+
+    private static final int EVENTS = 10;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private EventViewsService eventViewsService;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @Test
+    void getEventsByFilterSearchForAdminRunsSameStatementsForAnyPageSize() {
+        List<Long> initiators = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            Long initiatorId = fixtures.addUser();
+            addEvent(initiatorId);
+            initiators.add(initiatorId);
+        }
+
+        long oneEventStatements = countStatements(() -> eventService.getEventsByFilterSearchForAdmin(
+                byUsers(initiators.subList(0, 1))).getEvents(), 1);
+        long pageStatements = countStatements(() -> eventService.getEventsByFilterSearchForAdmin(
+                byUsers(initiators)).getEvents(), EVENTS);
+
+        assertEquals(oneEventStatements, pageStatements);
+    }
+
+    @Test
+    void getEventsByFilterSearchReadsShortViewsWithoutEntities() {
+        List<EventFullDto> created = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            created.add(fixtures.publish(addEvent(fixtures.addUser()).getId()));
+        }
+        List<Long> categories = created.stream().map(event -> event.getCategory().getId()).toList();
+
+        long oneEventStatements = countStatements(() -> eventService.getEventsByFilterSearch(
+                byCategories(categories.subList(0, 1))).getEvents(), 1);
+        assertEquals(0, getEventLoadCount());
+        List<EventShortDto> page = new ArrayList<>();
+        long pageStatements = countStatements(() -> {
+            page.addAll(eventService.getEventsByFilterSearch(byCategories(categories)).getEvents());
+            return page;
+        }, EVENTS);
+        assertEquals(0, getEventLoadCount());
+
+        assertEquals(oneEventStatements, pageStatements);
+        assertShortDtos(created, page);
+    }
+
+    @Test
+    void getEventByUserReadsShortViewsWithoutEntities() {
+        Long oneEventInitiator = fixtures.addUser();
+        addEvent(oneEventInitiator);
+        Long initiatorId = fixtures.addUser();
+        List<EventFullDto> created = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            created.add(addEvent(initiatorId));
+        }
+
+        long oneEventStatements = countStatements(
+                () -> eventService.getEventByUser(oneEventInitiator, 0, EVENTS * 2), 1);
+        assertEquals(0, getEventLoadCount());
+        List<EventShortDto> page = new ArrayList<>();
+        long pageStatements = countStatements(() -> {
+            page.addAll(eventService.getEventByUser(initiatorId, 0, EVENTS * 2));
+            return page;
+        }, EVENTS);
+        assertEquals(0, getEventLoadCount());
+
+        assertEquals(oneEventStatements, pageStatements);
+        assertShortDtos(created, page);
+    }
+
+    // Число подготовленных запросов при чтении страницы из expectedSize событий. Страница читается в одной
+    // сессии, как при open-in-view в HTTP-запросе, поэтому ленивые связи догружаются и попадают в статистику.
+    // Кэш второго уровня очищается, чтобы связанные сущности не находились в нём вместо базы
+    private long countStatements(Supplier<? extends List<?>> page, int expectedSize) {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        List<?> events = transactionTemplate.execute(status -> page.get());
+        assertEquals(expectedSize, events.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Сколько сущностей Event загружено с момента последнего замера
+    private long getEventLoadCount() {
+        return statistics.getEntityStatistics(Event.class.getName()).getLoadCount();
+    }
+
+    // Поля EventShortDto, прочитанные проекцией, совпадают с полями созданных событий
+    private void assertShortDtos(List<EventFullDto> expected, List<EventShortDto> actual) {
+        Map<Long, EventShortDto> actualById = actual.stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
+        for (EventFullDto event : expected) {
+            EventShortDto shortDto = actualById.get(event.getId());
+            assertEquals(event.getTitle(), shortDto.getTitle());
+            assertEquals(event.getAnnotation(), shortDto.getAnnotation());
+            assertEquals(event.getEventDate(), shortDto.getEventDate());
+            assertEquals(event.isPaid(), shortDto.getPaid());
+            assertEquals(event.getCategory().getId(), shortDto.getCategory().getId());
+            assertEquals(event.getCategory().getName(), shortDto.getCategory().getName());
+            assertEquals(event.getInitiator().getId(), shortDto.getInitiator().getId());
+            assertEquals(event.getInitiator().getName(), shortDto.getInitiator().getName());
+        }
+    }
+
+    private EventSearchParameters byUsers(List<Long> users) {
+        return EventSearchParameters.builder()
+                .users(users)
+                .from(0)
+                .size(EVENTS * 2)
+                .build();
+    }
+
+    private EventSearchParameters byCategories(List<Long> categories) {
+        return EventSearchParameters.builder()
+                .categories(categories)
+                .from(0)
+                .size(EVENTS * 2)
+                .build();
+    }
+
+    // Созданное событие перечитывается в транзакции, чтобы ответ содержал название категории
+    private EventFullDto addEvent(Long initiatorId) {
+        Long eventId = fixtures.addEvent(initiatorId, 0, true).getId();
+        return transactionTemplate.execute(status -> eventService.getEventByUserAndById(initiatorId, eventId));
+    }
+}
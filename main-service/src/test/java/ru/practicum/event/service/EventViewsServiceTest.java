@@ -0,0 +1,72 @@
+package ru.practicum.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.MainService;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.TestFixtures;
+import ru.practicum.client.StatClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+// Синхронизация events.views со статистикой затрагивает только предстоящие опубликованные события
+@SpringBootTest(classes = MainService.class)
+class EventViewsServiceTest {
+
+    private static final long HITS = 7;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EventViewsService eventViewsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private StatClient statClient;
+
+    // Сервис статистики возвращает одинаковое число просмотров для каждого запрошенного события
+    @BeforeEach
+    void setUp() {
+        when(statClient.getStatsRequest(any(), any(), anyList(), anyBoolean(), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    List<String> uris = invocation.getArgument(2);
+                    return ResponseEntity.ok(uris.stream()
+                            .map(uri -> new RequestOutputDto("ewm-main-service", uri, HITS))
+                            .toList());
+                });
+    }
+
+    @Test
+    void synchronizeViewsUpdatesOnlyUpcomingPublishedEvents() {
+        Long upcomingId = fixtures.addPublishedEvent(fixtures.addUser(), 0, true).getId();
+        Long pendingId = fixtures.addEvent(fixtures.addUser(), 0, true).getId();
+        Long pastId = fixtures.addPublishedEvent(fixtures.addUser(), 0, true).getId();
+        jdbcTemplate.update("UPDATE events SET event_date = ?, views = 3 WHERE id = ?",
+                LocalDateTime.now().minusDays(1), pastId);
+
+        eventViewsService.synchronizeViews();
+
+        assertEquals(HITS, getViews(upcomingId));
+        assertEquals(0, getViews(pendingId));
+        assertEquals(3, getViews(pastId));
+    }
+
+    private long getViews(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT views FROM events WHERE id = ?", Long.class, eventId);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.event.service.EventAdmissionCounter;
+import ru.practicum.exception.DataConflictException;
+import ru.practicum.request.model.StatusRequest;
+import ru.practicum.request.repository.RequestRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Параллельные заявки на участие не должны превышать лимит участников события и дублироваться
+@SpringBootTest(classes = MainService.class)
+class RequestServiceConcurrencyTest {
+
+    private static final int PARTICIPANT_LIMIT = 5;
+    private static final int PARTICIPANTS = 30;
+    private static final int DUPLICATES = 10;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private EventAdmissionCounter eventAdmissionCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Nested
+    class ConditionalUpdate {
+
+        @Test
+        void addUserRequestConfirmsExactlyParticipantLimit() throws Exception {
+            checkParticipantLimit();
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "events.admission.in-memory.enabled=true")
+    class InMemoryCounter {
+
+        @Test
+        void addUserRequestConfirmsExactlyParticipantLimit() throws Exception {
+            checkParticipantLimit();
+        }
+    }
+
+    // Повторные заявки одного пользователя отклоняет уникальный индекс, место в событии занимает только первая
+    @Test
+    void addUserRequestStoresOneRequestForParallelDuplicates() throws Exception {
+        Long eventId = fixtures.addPublishedEvent(fixtures.addUser(), 0, false).getId();
+        Long userId = fixtures.addUser();
+
+        int confirmed = addUserRequestsInParallel(Collections.nCopies(DUPLICATES, userId), eventId);
+
+        assertEquals(1, confirmed);
+        assertEquals(1, requestService.getUserRequests(userId).size());
+        assertEquals(1, getConfirmedRequests(eventId));
+    }
+
+    private void checkParticipantLimit() throws Exception {
+        Long eventId = fixtures.addPublishedEvent(fixtures.addUser(), PARTICIPANT_LIMIT, false).getId();
+        List<Long> participants = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            participants.add(fixtures.addUser());
+        }
+
+        int confirmed = addUserRequestsInParallel(participants, eventId);
+        eventAdmissionCounter.flush();
+
+        assertEquals(PARTICIPANT_LIMIT, confirmed);
+        assertEquals(PARTICIPANT_LIMIT, requestRepository.countByEvent_IdAndStatus(eventId, StatusRequest.CONFIRMED));
+        assertEquals(PARTICIPANT_LIMIT, getConfirmedRequests(eventId));
+    }
+
+    // Одновременно подаёт заявки пользователей userIds и возвращает число принятых; остальные должны получить конфликт
+    private int addUserRequestsInParallel(List<Long> userIds, Long eventId) throws Exception {
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(userIds.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        requestService.addUserRequest(userId, eventId);
+                        confirmed.incrementAndGet();
+                    } catch (DataConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(userIds.size(), confirmed.get() + rejected.get());
+        return confirmed.get();
+    }
+
+    private int getConfirmedRequests(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Integer.class, eventId);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.MainService;
+import ru.practicum.TestFixtures;
+import ru.practicum.event.dto.EventFullDto;
+import ru.practicum.exception.DataConflictException;
+import ru.practicum.request.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.request.dto.EventRequestStatusUpdateResult;
+import ru.practicum.request.dto.ParticipationRequestDto;
+import ru.practicum.request.model.StatusRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Изменение статуса заявок инициатором события
+@SpringBootTest(classes = MainService.class)
+class RequestServiceImplTest {
+
+    private static final int PARTICIPANT_LIMIT = 3;
+    private static final int PARTICIPANTS = 5;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Подтверждаются первые заявки в пределах лимита, после исчерпания лимита отклоняются все ожидающие заявки
+    @Test
+    void changeStatusRequestConfirmsUpToLimitAndRejectsRestPending() {
+        Long initiatorId = fixtures.addUser();
+        EventFullDto event = fixtures.addPublishedEvent(initiatorId, PARTICIPANT_LIMIT, true);
+        List<Long> requestIds = addPendingRequests(event.getId());
+
+        EventRequestStatusUpdateResult result = requestService.changeStatusRequest(initiatorId, event.getId(),
+                new EventRequestStatusUpdateRequest(requestIds.subList(0, 4), StatusRequest.CONFIRMED));
+
+        assertEquals(requestIds.subList(0, PARTICIPANT_LIMIT), getIds(result.getConfirmedRequests()));
+        assertEquals(requestIds.subList(PARTICIPANT_LIMIT, PARTICIPANTS), getIds(result.getRejectedRequests()));
+        Map<Long, StatusRequest> statuses = getStatuses(initiatorId, event.getId());
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            assertEquals(i < PARTICIPANT_LIMIT ? StatusRequest.CONFIRMED : StatusRequest.REJECTED,
+                    statuses.get(requestIds.get(i)));
+        }
+        assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject(
+                "SELECT confirmed_requests FROM events WHERE id = ?", Integer.class, event.getId()));
+    }
+
+    @Test
+    void changeStatusRequestRejectsOnlyListedRequests() {
+        Long initiatorId = fixtures.addUser();
+        EventFullDto event = fixtures.addPublishedEvent(initiatorId, PARTICIPANT_LIMIT, true);
+        List<Long> requestIds = addPendingRequests(event.getId());
+
+        EventRequestStatusUpdateResult result = requestService.changeStatusRequest(initiatorId, event.getId(),
+                new EventRequestStatusUpdateRequest(requestIds.subList(0, 2), StatusRequest.REJECTED));
+
+        assertEquals(List.of(), result.getConfirmedRequests());
+        assertEquals(requestIds.subList(0, 2), getIds(result.getRejectedRequests()));
+        Map<Long, StatusRequest> statuses = getStatuses(initiatorId, event.getId());
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            assertEquals(i < 2 ? StatusRequest.REJECTED : StatusRequest.PENDING, statuses.get(requestIds.get(i)));
+        }
+    }
+
+    @Test
+    void changeStatusRequestFailsForNotPendingRequest() {
+        Long initiatorId = fixtures.addUser();
+        EventFullDto event = fixtures.addPublishedEvent(initiatorId, PARTICIPANT_LIMIT, true);
+        List<Long> requestIds = addPendingRequests(event.getId());
+        requestService.changeStatusRequest(initiatorId, event.getId(),
+                new EventRequestStatusUpdateRequest(requestIds.subList(0, 1), StatusRequest.REJECTED));
+
+        assertThrows(DataConflictException.class, () -> requestService.changeStatusRequest(initiatorId,
+                event.getId(), new EventRequestStatusUpdateRequest(requestIds.subList(0, 2), StatusRequest.CONFIRMED)));
+        assertEquals(StatusRequest.PENDING, getStatuses(initiatorId, event.getId()).get(requestIds.get(1)));
+    }
+
+    private List<Long> addPendingRequests(Long eventId) {
+        List<Long> requestIds = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            ParticipationRequestDto request = requestService.addUserRequest(fixtures.addUser(), eventId);
+            assertEquals(StatusRequest.PENDING, request.getStatus());
+            requestIds.add(request.getId());
+        }
+        return requestIds;
+    }
+
+    private Map<Long, StatusRequest> getStatuses(Long initiatorId, Long eventId) {
+        return requestService.getUserRequestsByEvent(initiatorId, eventId).stream()
+                .collect(Collectors.toMap(ParticipationRequestDto::getId, ParticipationRequestDto::getStatus));
+    }
+
+    private List<Long> getIds(List<ParticipationRequestDto> requests) {
+        return requests.stream().map(ParticipationRequestDto::getId).toList();
+    }
+}
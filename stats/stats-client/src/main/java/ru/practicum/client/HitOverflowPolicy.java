@@ -0,0 +1,11 @@
+package ru.practicum.client;
+
+// Поведение при заполненной очереди посещений
+public enum HitOverflowPolicy {
+    // Отбросить новое посещение
+    DROP_NEWEST,
+    // Вытеснить самое старое посещение из очереди
+    DROP_OLDEST,
+    // Подождать освобождения места не дольше offer-timeout-ms, затем отбросить новое посещение
+    BLOCK
+}
@@ -0,0 +1,184 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.RequestCreateDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Отправка посещений в сервис статистики в фоновом потоке.
+// Поток запроса только кладёт посещение в ограниченную очередь, поэтому задержки и недоступность
+// сервиса статистики не влияют на ответы пользователям; при переполнении посещения отбрасываются.
+// Посещения отправляются пакетами в /hit/batch: пакет уходит, когда набран batch-size
+// или прошло flush-interval-ms с момента появления первого посещения в пакете.
+@Component
+public class HitSender {
+
+    private static final Logger log = LoggerFactory.getLogger(HitSender.class);
+
+    private final WebClient webClient;
+    private final BlockingQueue<RequestCreateDto> queue;
+    private final HitOverflowPolicy overflowPolicy;
+    private final long offerTimeoutMs;
+    private final Duration sendTimeout;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final Counter queuedCounter;
+    private final Counter sentCounter;
+    private final Counter droppedOverflowCounter;
+    private final Counter droppedErrorCounter;
+
+    private Thread sender;
+    private volatile boolean running;
+
+    public HitSender(@Value("${stats-server.url}") String statsServerUrl,
+                     @Value("${stats-client.hits.queue-capacity:10000}") int queueCapacity,
+                     @Value("${stats-client.hits.overflow-policy:DROP_OLDEST}") HitOverflowPolicy overflowPolicy,
+                     @Value("${stats-client.hits.offer-timeout-ms:5}") long offerTimeoutMs,
+                     @Value("${stats-client.hits.send-timeout-ms:2000}") long sendTimeoutMs,
+                     @Value("${stats-client.hits.batch-size:500}") int batchSize,
+                     @Value("${stats-client.hits.flush-interval-ms:200}") long flushIntervalMs,
+                     MeterRegistry meterRegistry) {
+        this.webClient = WebClient.builder()
+                .baseUrl(statsServerUrl)
+                .build();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMs);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        this.queuedCounter = meterRegistry.counter("stats.client.hits.queued");
+        this.sentCounter = meterRegistry.counter("stats.client.hits.sent");
+        this.droppedOverflowCounter = meterRegistry.counter("stats.client.hits.dropped", "reason", "overflow");
+        this.droppedErrorCounter = meterRegistry.counter("stats.client.hits.dropped", "reason", "error");
+        meterRegistry.gauge("stats.client.hits.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        sender = new Thread(this::sendLoop, "stats-hit-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    // При остановке приложения фоновый поток дособирает и отправляет текущий пакет и завершается,
+    // затем оставшееся в очереди отправляется из вызывающего потока, но не дольше send-timeout-ms.
+    // Поток не прерывается: прерванный поток не смог бы дождаться ответа на отправку последнего пакета
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + sendTimeout.toMillis());
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<RequestCreateDto> batch = new ArrayList<>(batchSize);
+        while (System.nanoTime() < deadline && queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    public void enqueue(RequestCreateDto hit) {
+        if (offer(hit)) {
+            queuedCounter.increment();
+        } else {
+            droppedOverflowCounter.increment();
+            log.debug("Очередь посещений переполнена, посещение URI {} отброшено.", hit.getUri());
+        }
+    }
+
+    private boolean offer(RequestCreateDto hit) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!queue.offer(hit)) {
+                    if (queue.poll() != null) {
+                        droppedOverflowCounter.increment();
+                    }
+                }
+                return true;
+            case BLOCK:
+                try {
+                    return queue.offer(hit, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            default:
+                return queue.offer(hit);
+        }
+    }
+
+    private void sendLoop() {
+        List<RequestCreateDto> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                send(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    // Ждёт первое посещение, затем добирает пакет до batch-size, но не дольше flush-interval-ms.
+    // Первое посещение тоже ждётся не дольше flush-interval-ms, чтобы поток заметил остановку
+    private void collectBatch(List<RequestCreateDto> batch) throws InterruptedException {
+        RequestCreateDto first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long wait = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || wait <= 0) {
+                return;
+            }
+            RequestCreateDto hit = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (hit == null) {
+                return;
+            }
+            batch.add(hit);
+        }
+    }
+
+    private void send(List<RequestCreateDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            webClient.post()
+                    .uri("/hit/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(batch)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block(sendTimeout);
+            sentCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            droppedErrorCounter.increment(batch.size());
+            log.warn("Не удалось отправить пакет из {} посещений в сервис статистики: {}", batch.size(), e.getMessage());
+        }
+    }
+
+}
@@ -1,12 +1,18 @@
 package ru.practicum.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import ru.practicum.RequestCreateDto;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import org.springframework.web.reactive.function.client.WebClient;
@@ -16,27 +22,64 @@ import ru.practicum.RequestOutputDto;
 public class StatClient {
 
     private final WebClient webClient;
+    private final HitSender hitSender;
+    private final Cache<StatsCacheKey, ResponseEntity<List<RequestOutputDto>>> statsCache;
 
     @Autowired
-    public StatClient(@Value("${stats-server.url}") String statsServerUrl) {
+    public StatClient(@Value("${stats-server.url}") String statsServerUrl,
+                      @Value("${stats-client.stats-cache.ttl-ms:5000}") long statsCacheTtlMs,
+                      @Value("${stats-client.stats-cache.max-size:10000}") long statsCacheMaxSize,
+                      HitSender hitSender,
+                      MeterRegistry meterRegistry) {
         this.webClient = WebClient.builder()
                 .baseUrl(statsServerUrl)
                 .build();
+        this.hitSender = hitSender;
+        this.statsCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(statsCacheTtlMs))
+                .maximumSize(statsCacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statsCache, "stats-client.stats");
     }
 
+    // Посещение не отправляется сразу, а ставится в очередь фоновой отправки
     public void addRequest(RequestCreateDto requestDto) {
-        webClient.post()
-                .uri("/hit")
-                .bodyValue(requestDto)
-                .retrieve()
-                .bodyToMono(Object.class)
-                .block();
+        hitSender.enqueue(requestDto);
     }
 
     public ResponseEntity<List<RequestOutputDto>> getStatsRequest(LocalDateTime start,
                                                                   LocalDateTime end,
                                                                   List<String> uris,
                                                                   Boolean unique) {
+        return getStatsRequest(start, end, uris, unique, null);
+    }
+
+    // exact = false - приблизительный подсчёт уникальных посещений по скетчам HyperLogLog.
+    // Период расширяется до целых минут, чтобы одинаковые запросы со сдвигающимся "сейчас" совпадали
+    // и отвечались из кэша; одновременные промахи по одному ключу выполняют один запрос к сервису статистики.
+    public ResponseEntity<List<RequestOutputDto>> getStatsRequest(LocalDateTime start,
+                                                                  LocalDateTime end,
+                                                                  List<String> uris,
+                                                                  Boolean unique,
+                                                                  Boolean exact) {
+        LocalDateTime windowStart = start.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime windowEnd = end.truncatedTo(ChronoUnit.MINUTES);
+        if (windowEnd.isBefore(end)) {
+            windowEnd = windowEnd.plusMinutes(1);
+        }
+        List<String> sortedUris = uris == null ? null : uris.stream().sorted().toList();
+
+        StatsCacheKey key = new StatsCacheKey(windowStart, windowEnd, sortedUris, unique, exact);
+        return statsCache.get(key, this::requestStats);
+    }
+
+    private ResponseEntity<List<RequestOutputDto>> requestStats(StatsCacheKey key) {
+        LocalDateTime start = key.start();
+        LocalDateTime end = key.end();
+        List<String> uris = key.uris();
+        Boolean unique = key.unique();
+        Boolean exact = key.exact();
 
         return webClient.get()
                 .uri(uriBuilder -> {
@@ -47,6 +90,8 @@ public class StatClient {
                         uriBuilder.queryParam("uris", String.join(",", uris));
                     if (unique != null)
                         uriBuilder.queryParam("unique", unique);
+                    if (exact != null)
+                        uriBuilder.queryParam("exact", exact);
                     return uriBuilder.build();
                 })
                 .retrieve()
@@ -54,4 +99,8 @@ public class StatClient {
                 .block();
     }
 
+    private record StatsCacheKey(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                 Boolean exact) {
+    }
+
 }
@@ -0,0 +1,59 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.RequestCreateDto;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Остановка отправителя не теряет посещения, которые фоновый поток уже забрал из очереди
+class HitSenderTest {
+
+    private static final int HITS = 10;
+
+    private final AtomicInteger received = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hit/batch", exchange -> {
+            received.addAndGet(objectMapper.readTree(exchange.getRequestBody()).size());
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void stopSendsPartialBatch() throws InterruptedException {
+        HitSender hitSender = new HitSender("http://localhost:" + server.getAddress().getPort(), 100,
+                HitOverflowPolicy.DROP_OLDEST, 5, 2000, 500, 1000, new SimpleMeterRegistry());
+        hitSender.start();
+        for (int i = 0; i < HITS; i++) {
+            hitSender.enqueue(new RequestCreateDto("ewm-main-service", "/events/" + i, "192.168.0.1",
+                    LocalDateTime.now()));
+        }
+        // Фоновый поток забирает посещения в пакет и ждёт его заполнения до flush-interval-ms
+        Thread.sleep(100);
+
+        hitSender.stop();
+
+        assertEquals(HITS, received.get());
+    }
+}
@@ -1,9 +1,13 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.RequestCreateDto;
@@ -11,6 +15,7 @@ import ru.practicum.RequestDto;
 import ru.practicum.RequestOutputDto;
 import ru.practicum.service.StatsService;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -20,7 +25,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StatsController {
 
+    private static final String UNIQUE_RELATIVE_ERROR_HEADER = "X-Unique-Relative-Error";
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -31,11 +41,33 @@ public class StatsController {
         return requestDto;
     }
 
+    @PostMapping(value = "/hit/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addRequests(@RequestBody List<RequestCreateDto> requestCreateDtos) {
+        log.info("Получен запрос на пакетное добавление статистики: {} посещений", requestCreateDtos.size());
+        int saved = statsService.addRequests(requestCreateDtos);
+        log.info("Добавлена информация о статистике {} посещений", saved);
+    }
+
+    // Тот же пакет в формате NDJSON: по одному посещению в строке
+    @PostMapping(value = "/hit/batch", consumes = NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addRequestsNdjson(@RequestBody String body) {
+        List<RequestCreateDto> requestCreateDtos;
+        try (MappingIterator<RequestCreateDto> iterator = objectMapper.readerFor(RequestCreateDto.class).readValues(body)) {
+            requestCreateDtos = iterator.readAll();
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный формат пакета посещений: " + e.getMessage());
+        }
+        addRequests(requestCreateDtos);
+    }
+
     @GetMapping("/stats")
-    public List<RequestOutputDto> getStatsRequest(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
-                                                  @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
-                                                  @RequestParam(required = false) List<String> uris,
-                                                  @RequestParam(required = false) Boolean unique) {
+    public ResponseEntity<List<RequestOutputDto>> getStatsRequest(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                                                  @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                                                  @RequestParam(required = false) List<String> uris,
+                                                                  @RequestParam(required = false) Boolean unique,
+                                                                  @RequestParam(required = false) Boolean exact) {
 
         if (uris == null || uris.isEmpty()) {
             uris = Collections.emptyList();
@@ -43,14 +75,25 @@ public class StatsController {
         if (unique == null) {
             unique = false;
         }
+        if (exact == null) {
+            exact = true;
+        }
 
         if (start.isAfter(end)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Дата начала не может быть позже даты окончания.");
         }
 
-        log.info("Получен запрос получения статистики по посещениям с параметрами: start: {}; end: {}, uris: {}, unique: {}",
-                start, end, uris, unique);
-        return statsService.getStatsRequest(start, end, uris, unique);
+        log.info("Получен запрос получения статистики по посещениям с параметрами: start: {}; end: {}, uris: {}, " +
+                 "unique: {}, exact: {}", start, end, uris, unique, exact);
+        List<RequestOutputDto> stats = statsService.getStatsRequest(start, end, uris, unique, exact);
+
+        // Для приблизительного подсчёта уникальных посещений сообщаем относительную погрешность
+        if (unique && !exact) {
+            return ResponseEntity.ok()
+                    .header(UNIQUE_RELATIVE_ERROR_HEADER, String.valueOf(statsService.getUniqueRelativeError()))
+                    .body(stats);
+        }
+        return ResponseEntity.ok(stats);
     }
 
 }
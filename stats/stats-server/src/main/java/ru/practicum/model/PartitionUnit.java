@@ -0,0 +1,19 @@
+package ru.practicum.model;
+
+import java.time.LocalDate;
+
+// Размер секции таблицы requests
+public enum PartitionUnit {
+    DAY,
+    MONTH;
+
+    // Начало секции, в которую попадает дата
+    public LocalDate floor(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    // Начало следующей секции
+    public LocalDate next(LocalDate start) {
+        return this == MONTH ? start.plusMonths(1) : start.plusDays(1);
+    }
+}
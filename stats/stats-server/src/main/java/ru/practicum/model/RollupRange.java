@@ -0,0 +1,48 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Диапазон интервалов одного размера [from, to), который читается из агрегатов
+@Getter
+@AllArgsConstructor
+@ToString
+public class RollupRange {
+
+    private Granularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    // Покрытие периода [from, to), выровненного по минутам, наиболее крупными интервалами
+    public static List<RollupRange> cover(LocalDateTime from, LocalDateTime to) {
+        List<RollupRange> ranges = new ArrayList<>();
+        cover(from, to, Granularity.DAY, ranges);
+        return ranges;
+    }
+
+    private static void cover(LocalDateTime from, LocalDateTime to, Granularity granularity, List<RollupRange> ranges) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == Granularity.MINUTE) {
+            ranges.add(new RollupRange(granularity, from, to));
+            return;
+        }
+
+        Granularity finer = granularity == Granularity.DAY ? Granularity.HOUR : Granularity.MINUTE;
+        LocalDateTime alignedFrom = granularity.ceil(from);
+        LocalDateTime alignedTo = granularity.floor(to);
+        if (alignedFrom.isBefore(alignedTo)) {
+            ranges.add(new RollupRange(granularity, alignedFrom, alignedTo));
+            cover(from, alignedFrom, finer, ranges);
+            cover(alignedTo, to, finer, ranges);
+        } else {
+            cover(from, to, finer, ranges);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.model;
+
+// Ключ группировки статистики: сервис и uri
+public record StatsKey(String app, String uri) {
+}
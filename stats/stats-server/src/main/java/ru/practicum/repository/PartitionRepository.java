@@ -0,0 +1,99 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Секции таблицы requests в PostgreSQL.
+// Границы секции хранятся в её имени: requests_p<начало>_<конец>, например requests_p20260101_20260201
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+    private static final String DEFAULT_PARTITION = "requests_default";
+    private static final DateTimeFormatter NAME_DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern NAME_PATTERN = Pattern.compile("requests_p(\\d{8})_(\\d{8})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Таблица могла быть создана до перехода на секционирование
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                "JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = 'requests' AND pg_table_is_visible(c.oid))", Boolean.class));
+    }
+
+    // Секции по диапазонам дат; секция по умолчанию и секции с другими именами не возвращаются
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'requests' AND pg_table_is_visible(p.oid)", String.class)
+                .stream()
+                .map(NAME_PATTERN::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> new Partition(matcher.group(0),
+                        LocalDate.parse(matcher.group(1), NAME_DATE_FORMAT),
+                        LocalDate.parse(matcher.group(2), NAME_DATE_FORMAT)))
+                .toList();
+    }
+
+    public String partitionName(LocalDate from, LocalDate to) {
+        return "requests_p" + from.format(NAME_DATE_FORMAT) + "_" + to.format(NAME_DATE_FORMAT);
+    }
+
+    // Создаёт секцию [from, to) и возвращает количество записей, перенесённых в неё из секции по умолчанию.
+    // PostgreSQL не создаёт секцию, если в секции по умолчанию уже есть записи за её период, поэтому они
+    // переносятся в новую таблицу до присоединения. Вставка в секцию по умолчанию блокируется до конца
+    // транзакции, чтобы туда не попали новые записи периода; вызывать нужно в транзакции
+    public int createPartition(LocalDate from, LocalDate to) {
+        String name = partitionName(from, to);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE requests INCLUDING DEFAULTS)");
+
+        int moved = 0;
+        if (hasDefaultPartition()) {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+            moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " " +
+                                        "WHERE time_stamp >= ? AND time_stamp < ? RETURNING *) " +
+                                        "INSERT INTO " + name + " SELECT * FROM moved",
+                    from.atStartOfDay(), to.atStartOfDay());
+        }
+
+        jdbcTemplate.execute("ALTER TABLE requests ATTACH PARTITION " + name + " " +
+                             "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        return moved;
+    }
+
+    // Удаление секции целиком, без построчного DELETE и последующей очистки таблицы
+    public void dropPartition(Partition partition) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.name());
+    }
+
+    // Устаревшие записи секции по умолчанию (посещения вне созданных секций) удаляются построчно:
+    // секцию по умолчанию нельзя удалить целиком, а записей в ней немного
+    public int deleteDefaultPartitionRowsBefore(LocalDate threshold) {
+        if (!hasDefaultPartition()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE time_stamp < ?",
+                threshold.atStartOfDay());
+    }
+
+    private boolean hasDefaultPartition() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('" + DEFAULT_PARTITION + "') IS NOT NULL", Boolean.class));
+    }
+
+    // Секция с диапазоном дат [from, to)
+    public record Partition(String name, LocalDate from, LocalDate to) {
+    }
+
+}
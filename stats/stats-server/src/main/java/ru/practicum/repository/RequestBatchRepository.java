@@ -0,0 +1,33 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Request;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// Пакетная вставка посещений: один JDBC batch вместо отдельного INSERT на каждое посещение
+@Repository
+@RequiredArgsConstructor
+public class RequestBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Request> requests) {
+        SqlParameterSource[] params = requests.stream()
+                .map(request -> new MapSqlParameterSource()
+                        .addValue("app", request.getApp())
+                        .addValue("uri", request.getUri())
+                        .addValue("ip", request.getIp())
+                        .addValue("timestamp", Timestamp.valueOf(request.getTimestamp())))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate("INSERT INTO requests (app, uri, ip, time_stamp) " +
+                                 "VALUES (:app, :uri, :ip, :timestamp)", params);
+    }
+
+}
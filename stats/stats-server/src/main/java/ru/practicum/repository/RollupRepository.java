@@ -0,0 +1,249 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.model.Granularity;
+import ru.practicum.model.Request;
+import ru.practicum.model.RollupRange;
+import ru.practicum.model.StatsKey;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Агрегаты посещений по минутам, часам и суткам (таблицы hits_rollup и rollup_state)
+@Repository
+@RequiredArgsConstructor
+public class RollupRepository {
+
+    // Количество ключей интервалов в одном запросе чтения скетчей
+    private static final int KEYS_PER_QUERY = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${spring.sql.init.platform:postgresql}")
+    private String platform;
+
+    // Все записи requests с id не больше этого значения учтены в агрегатах
+    public long getRolledUpId() {
+        return jdbcTemplate.queryForObject("SELECT rolled_up_id FROM rollup_state WHERE id = 1",
+                Collections.emptyMap(), Long.class);
+    }
+
+    // Состояние агрегации с блокировкой строки, чтобы агрегацию одновременно выполнял только один экземпляр
+    public State lockState() {
+        return jdbcTemplate.queryForObject("SELECT rolled_up_id, seen_id, seen_xmax FROM rollup_state " +
+                                           "WHERE id = 1 FOR UPDATE",
+                Collections.emptyMap(), (rs, rowNum) -> new State(rs.getLong("rolled_up_id"),
+                        rs.getLong("seen_id"), rs.getLong("seen_xmax")));
+    }
+
+    public void updateRolledUpId(long rolledUpId) {
+        jdbcTemplate.update("UPDATE rollup_state SET rolled_up_id = :rolledUpId WHERE id = 1",
+                new MapSqlParameterSource("rolledUpId", rolledUpId));
+    }
+
+    // Запоминает максимальный id, видимый сейчас, и границу транзакций текущего снимка:
+    // записи с меньшими id, ещё не видимые сейчас, вставляют транзакции с номерами меньше этой границы.
+    // В H2 номеров транзакций нет, граница всегда 0
+    public void updateSeenId() {
+        String seenXmax = isPostgres() ? "txid_snapshot_xmax(txid_current_snapshot())" : "0";
+        jdbcTemplate.update("UPDATE rollup_state SET seen_id = (SELECT COALESCE(MAX(id), 0) FROM requests), " +
+                            "seen_xmax = " + seenXmax + " WHERE id = 1",
+                Collections.emptyMap());
+    }
+
+    // Завершены ли все транзакции с номерами меньше границы: тогда все записи с id до seen_id уже видны,
+    // сколько бы ни длилась вставившая их транзакция
+    public boolean isFinishedBefore(long xmax) {
+        if (!isPostgres()) {
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT txid_snapshot_xmin(txid_current_snapshot()) >= :xmax",
+                new MapSqlParameterSource("xmax", xmax), Boolean.class));
+    }
+
+    public List<Request> findRequestsAfter(long afterId, long toId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("toId", toId)
+                .addValue("limit", limit);
+        return jdbcTemplate.query("SELECT id, app, uri, ip, time_stamp FROM requests " +
+                                  "WHERE id > :afterId AND id <= :toId ORDER BY id LIMIT :limit", params,
+                (rs, rowNum) -> new Request(rs.getLong("id"), rs.getString("app"), rs.getString("uri"),
+                        rs.getString("ip"), rs.getTimestamp("time_stamp").toLocalDateTime()));
+    }
+
+    // Сохранённые скетчи уникальных ip для набора интервалов; запросов - по одному на KEYS_PER_QUERY ключей
+    public Map<BucketKey, byte[]> findSketches(Collection<BucketKey> keys) {
+        Map<BucketKey, byte[]> sketches = new HashMap<>();
+        List<Object[]> keyValues = keys.stream()
+                .map(key -> new Object[]{key.granularity().name(), key.uri(), Timestamp.valueOf(key.bucketStart()),
+                        key.app()})
+                .toList();
+        for (int from = 0; from < keyValues.size(); from += KEYS_PER_QUERY) {
+            List<Object[]> part = keyValues.subList(from, Math.min(from + KEYS_PER_QUERY, keyValues.size()));
+            jdbcTemplate.query("SELECT granularity, app, uri, bucket_start, ip_sketch FROM hits_rollup " +
+                               "WHERE (granularity, uri, bucket_start, app) IN (:keys)",
+                    new MapSqlParameterSource("keys", part),
+                    (RowCallbackHandler) rs -> sketches.put(new BucketKey(Granularity.valueOf(rs.getString("granularity")),
+                                    rs.getString("app"), rs.getString("uri"),
+                                    rs.getTimestamp("bucket_start").toLocalDateTime()),
+                            rs.getBytes("ip_sketch")));
+        }
+        return sketches;
+    }
+
+    // Одним пакетом прибавляет посещения к интервалам и записывает объединённые скетчи;
+    // отсутствующие интервалы создаются. В PostgreSQL - INSERT ... ON CONFLICT, в H2 - MERGE
+    public void upsertBuckets(Map<BucketKey, Bucket> buckets) {
+        SqlParameterSource[] params = buckets.entrySet().stream()
+                .map(entry -> bucketParams(entry.getKey())
+                        .addValue("hits", entry.getValue().hits())
+                        .addValue("ipSketch", entry.getValue().ipSketch()))
+                .toArray(SqlParameterSource[]::new);
+
+        String sql = isPostgres()
+                ? "INSERT INTO hits_rollup (granularity, app, uri, bucket_start, hits, ip_sketch) " +
+                  "VALUES (:granularity, :app, :uri, :bucketStart, :hits, :ipSketch) " +
+                  "ON CONFLICT (granularity, uri, bucket_start, app) " +
+                  "DO UPDATE SET hits = hits_rollup.hits + excluded.hits, ip_sketch = excluded.ip_sketch"
+                : "MERGE INTO hits_rollup t " +
+                  "USING (VALUES (CAST(:granularity AS VARCHAR(10)), CAST(:app AS VARCHAR(150)), " +
+                  "  CAST(:uri AS VARCHAR(250)), CAST(:bucketStart AS TIMESTAMP), CAST(:hits AS BIGINT), " +
+                  "  CAST(:ipSketch AS VARBINARY))) " +
+                  "  AS s (granularity, app, uri, bucket_start, hits, ip_sketch) " +
+                  "ON t.granularity = s.granularity AND t.uri = s.uri " +
+                  "  AND t.bucket_start = s.bucket_start AND t.app = s.app " +
+                  "WHEN MATCHED THEN UPDATE SET hits = t.hits + s.hits, ip_sketch = s.ip_sketch " +
+                  "WHEN NOT MATCHED THEN INSERT (granularity, app, uri, bucket_start, hits, ip_sketch) " +
+                  "  VALUES (s.granularity, s.app, s.uri, s.bucket_start, s.hits, s.ip_sketch)";
+        jdbcTemplate.batchUpdate(sql, params);
+    }
+
+    // Удаляет интервалы всех размеров, начавшиеся раньше threshold, по индексу (granularity, bucket_start)
+    public int deleteBucketsBefore(LocalDateTime threshold) {
+        return jdbcTemplate.update("DELETE FROM hits_rollup " +
+                                   "WHERE granularity IN (:granularities) AND bucket_start < :threshold",
+                new MapSqlParameterSource()
+                        .addValue("granularities", Arrays.stream(Granularity.values()).map(Enum::name).toList())
+                        .addValue("threshold", Timestamp.valueOf(threshold)));
+    }
+
+    // Количество посещений по агрегатам за набор диапазонов одним запросом
+    public List<RequestOutputDto> getHits(List<RollupRange> ranges, List<String> uris) {
+        if (ranges.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT app, uri, SUM(hits) AS hits " +
+                     "FROM (" + selectRanges("app, uri, hits", ranges, uris, params) + ") r " +
+                     "GROUP BY app, uri";
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new RequestOutputDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    // Объединяет скетчи уникальных ip из агрегатов за набор диапазонов
+    public void mergeSketches(List<RollupRange> ranges, List<String> uris, Map<StatsKey, HyperLogLog> sketches) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = selectRanges("app, uri, ip_sketch", ranges, uris, params);
+
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> sketches
+                .computeIfAbsent(new StatsKey(rs.getString("app"), rs.getString("uri")), key -> new HyperLogLog())
+                .merge(HyperLogLog.fromBytes(rs.getBytes("ip_sketch"))));
+    }
+
+    // Добавляет в скетчи ip сырых записей за период, которые не учтены в агрегатах
+    public void addNotRolledUpIps(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                  LocalDateTime rolledUpFrom, LocalDateTime rolledUpTo, long rolledUpId,
+                                  Map<StatsKey, HyperLogLog> sketches) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end))
+                .addValue("rolledUpFrom", Timestamp.valueOf(rolledUpFrom))
+                .addValue("rolledUpTo", Timestamp.valueOf(rolledUpTo))
+                .addValue("rolledUpId", rolledUpId);
+
+        String sql = "SELECT DISTINCT app, uri, ip FROM requests " +
+                     "WHERE time_stamp BETWEEN :start AND :end " +
+                     "  AND (time_stamp < :rolledUpFrom OR time_stamp >= :rolledUpTo OR id > :rolledUpId) ";
+        if (uris != null && !uris.isEmpty()) {
+            sql += "AND uri IN (:uris)";
+            params.addValue("uris", uris);
+        }
+
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> sketches
+                .computeIfAbsent(new StatsKey(rs.getString("app"), rs.getString("uri")), key -> new HyperLogLog())
+                .add(rs.getString("ip")));
+    }
+
+    // Диапазоны не пересекаются, поэтому выборка по каждому диапазону объединяется через UNION ALL:
+    // условие granularity и bucket_start каждой части читается по индексу, а при OR диапазонов
+    // планировщик H2 просматривает таблицу целиком
+    private String selectRanges(String columns, List<RollupRange> ranges, List<String> uris,
+                                MapSqlParameterSource params) {
+        String urisCondition = "";
+        if (uris != null && !uris.isEmpty()) {
+            urisCondition = "AND uri IN (:uris) ";
+            params.addValue("uris", uris);
+        }
+
+        List<String> selects = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            RollupRange range = ranges.get(i);
+            selects.add("SELECT " + columns + " FROM hits_rollup " +
+                        "WHERE granularity = :granularity" + i + " AND bucket_start >= :from" + i +
+                        " AND bucket_start < :to" + i + " " + urisCondition);
+            params.addValue("granularity" + i, range.getGranularity().name())
+                    .addValue("from" + i, Timestamp.valueOf(range.getFrom()))
+                    .addValue("to" + i, Timestamp.valueOf(range.getTo()));
+        }
+        return String.join("UNION ALL ", selects);
+    }
+
+    private MapSqlParameterSource bucketParams(BucketKey key) {
+        return new MapSqlParameterSource()
+                .addValue("granularity", key.granularity().name())
+                .addValue("app", key.app())
+                .addValue("uri", key.uri())
+                .addValue("bucketStart", Timestamp.valueOf(key.bucketStart()));
+    }
+
+    private boolean isPostgres() {
+        return "postgresql".equals(platform);
+    }
+
+    // Последний учтённый в агрегатах id, максимальный id, видимый на прошлом запуске,
+    // и граница транзакций снимка, в котором он был получен
+    public record State(long rolledUpId, long seenId, long seenXmax) {
+    }
+
+    // Интервал агрегации одного uri сервиса
+    public record BucketKey(Granularity granularity, String app, String uri, LocalDateTime bucketStart) {
+    }
+
+    // Количество посещений и скетч уникальных ip за интервал
+    public record Bucket(long hits, byte[] ipSketch) {
+    }
+
+}
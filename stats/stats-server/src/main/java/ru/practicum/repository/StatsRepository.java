@@ -10,13 +10,15 @@ import java.util.List;
 
 public interface StatsRepository extends JpaRepository<Request, Long> {
 
-    // Статистика посещений за период
+    // Статистика посещений за период, не учтённых в агрегатах: вне периода [?3, ?4) или с id больше ?5
     @Query(value = "SELECT new ru.practicum.RequestOutputDto(r.app, r.uri, COUNT(r.ip) hits)" +
                    "FROM Request r " +
                    "WHERE r.timestamp between ?1 and ?2 " +
-                   "GROUP BY r.app, r.uri " +
-                   "ORDER BY hits DESC ")
-    List<RequestOutputDto> getAllRequestsByPeriod(LocalDateTime start, LocalDateTime end);
+                   "  AND (r.timestamp < ?3 OR r.timestamp >= ?4 OR r.id > ?5) " +
+                   "GROUP BY r.app, r.uri ")
+    List<RequestOutputDto> getNotRolledUpRequestsByPeriod(LocalDateTime start, LocalDateTime end,
+                                                          LocalDateTime rolledUpFrom, LocalDateTime rolledUpTo,
+                                                          long rolledUpId);
 
     // Статистика уникальных посещений за период
     @Query(value = "SELECT new ru.practicum.RequestOutputDto(r.app, r.uri, COUNT(DISTINCT r.ip) hits)" +
@@ -26,14 +28,18 @@ public interface StatsRepository extends JpaRepository<Request, Long> {
                    "ORDER BY hits DESC ")
     List<RequestOutputDto> getUniqueRequestsByPeriod(LocalDateTime start, LocalDateTime end);
 
-    // Статистика посещений за период по списку uri
+    // Статистика посещений за период по списку uri, не учтённых в агрегатах
     @Query(value = "SELECT new ru.practicum.RequestOutputDto(r.app, r.uri, COUNT(r.ip) hits)" +
                    "FROM Request r " +
                    "WHERE r.timestamp between ?1 and ?2 " +
                    "  AND r.uri in ?3 " +
-                   "GROUP BY r.app, r.uri " +
-                   "ORDER BY hits DESC ")
-    List<RequestOutputDto> qetRequestByPeriodWithUris(LocalDateTime start, LocalDateTime end, List<String> uris);
+                   "  AND (r.timestamp < ?4 OR r.timestamp >= ?5 OR r.id > ?6) " +
+                   "GROUP BY r.app, r.uri ")
+    List<RequestOutputDto> qetNotRolledUpRequestByPeriodWithUris(LocalDateTime start, LocalDateTime end,
+                                                                 List<String> uris,
+                                                                 LocalDateTime rolledUpFrom,
+                                                                 LocalDateTime rolledUpTo,
+                                                                 long rolledUpId);
 
     // Статистика уникальных посещений за период по списку uri
     @Query(value = "SELECT new ru.practicum.RequestOutputDto(r.app, r.uri, COUNT(DISTINCT r.ip) hits)" +
@@ -0,0 +1,100 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.PartitionUnit;
+import ru.practicum.repository.PartitionRepository;
+import ru.practicum.repository.RollupRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Обслуживание секций таблицы requests: заранее создаёт секции на premake периодов вперёд
+// и удаляет секции и записи секции по умолчанию старше retention-days (0 - хранить без ограничения).
+// Агрегаты hits_rollup удаляются по той же границе, чтобы приблизительный и точный подсчёт
+// охватывали одинаковый период.
+// Секционирование есть только в схеме PostgreSQL, поэтому на H2 сервис не создаётся.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.sql.init.platform", havingValue = "postgresql")
+public class PartitionService {
+
+    private final PartitionRepository partitionRepository;
+    private final RollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.partition.unit:MONTH}")
+    private PartitionUnit unit;
+
+    @Value("${stats.partition.premake:3}")
+    private int premake;
+
+    @Value("${stats.partition.retention-days:0}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${stats.partition.interval-ms:3600000}")
+    public void maintainPartitions() {
+        if (!partitionRepository.isPartitioned()) {
+            log.warn("Таблица requests не секционирована, обслуживание секций пропущено.");
+            return;
+        }
+
+        List<PartitionRepository.Partition> partitions = partitionRepository.findPartitions();
+        createPartitions(partitions);
+        if (retentionDays > 0) {
+            dropPartitions(partitions);
+        }
+    }
+
+    private void createPartitions(List<PartitionRepository.Partition> partitions) {
+        LocalDate from = unit.floor(LocalDate.now());
+        for (int i = 0; i <= premake; i++) {
+            LocalDate to = unit.next(from);
+            if (!overlaps(partitions, from, to)) {
+                LocalDate partitionFrom = from;
+                try {
+                    Integer moved = transactionTemplate.execute(status ->
+                            partitionRepository.createPartition(partitionFrom, to));
+                    log.info("Создана секция {} таблицы requests, перенесено записей из секции по умолчанию: {}.",
+                            partitionRepository.partitionName(from, to), moved);
+                } catch (DataAccessException e) {
+                    log.warn("Не удалось создать секцию таблицы requests с {} по {}: {}", from, to, e.getMessage());
+                }
+            }
+            from = to;
+        }
+    }
+
+    private void dropPartitions(List<PartitionRepository.Partition> partitions) {
+        LocalDate threshold = LocalDate.now().minusDays(retentionDays);
+        for (PartitionRepository.Partition partition : partitions) {
+            if (!partition.to().isAfter(threshold)) {
+                partitionRepository.dropPartition(partition);
+                log.info("Удалена устаревшая секция {} таблицы requests.", partition.name());
+            }
+        }
+
+        int deleted = partitionRepository.deleteDefaultPartitionRowsBefore(threshold);
+        if (deleted > 0) {
+            log.info("Удалено устаревших записей из секции по умолчанию таблицы requests: {}.", deleted);
+        }
+
+        int deletedBuckets = rollupRepository.deleteBucketsBefore(threshold.atStartOfDay());
+        if (deletedBuckets > 0) {
+            log.info("Удалено устаревших интервалов из таблицы hits_rollup: {}.", deletedBuckets);
+        }
+    }
+
+    private boolean overlaps(List<PartitionRepository.Partition> partitions, LocalDate from, LocalDate to) {
+        return partitions.stream()
+                .anyMatch(partition -> partition.from().isBefore(to) && from.isBefore(partition.to()));
+    }
+
+}
@@ -0,0 +1,104 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.Granularity;
+import ru.practicum.model.Request;
+import ru.practicum.repository.RollupRepository;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Инкрементальная агрегация сырых посещений в интервалы по минутам, часам и суткам.
+// Записи обрабатываются по возрастанию id, поэтому посещения с запоздавшим timestamp тоже попадают в агрегаты.
+// Записи до seen_id агрегируются только после завершения всех транзакций, активных в момент его фиксации,
+// поэтому запись с меньшим id, вставленная долгой транзакцией, не будет пропущена.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RollupService {
+
+    private final RollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.rollup.chunk-size:10000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${stats.rollup.interval-ms:60000}")
+    public void rollUp() {
+        boolean hasMore = true;
+        while (hasMore) {
+            hasMore = Boolean.TRUE.equals(transactionTemplate.execute(status -> rollUpChunk()));
+        }
+    }
+
+    private boolean rollUpChunk() {
+        RollupRepository.State state = rollupRepository.lockState();
+        if (state.rolledUpId() >= state.seenId()) {
+            rollupRepository.updateSeenId();
+            return false;
+        }
+        if (!rollupRepository.isFinishedBefore(state.seenXmax())) {
+            log.debug("Агрегация отложена: ещё не завершены транзакции, вставлявшие посещения с id до {}.",
+                    state.seenId());
+            return false;
+        }
+
+        List<Request> requests = rollupRepository.findRequestsAfter(state.rolledUpId(), state.seenId(), chunkSize);
+        if (requests.isEmpty()) {
+            rollupRepository.updateRolledUpId(state.seenId());
+            return true;
+        }
+
+        Map<RollupRepository.BucketKey, Aggregate> aggregates = new HashMap<>();
+        for (Request request : requests) {
+            for (Granularity granularity : Granularity.values()) {
+                RollupRepository.BucketKey key = new RollupRepository.BucketKey(granularity, request.getApp(),
+                        request.getUri(), granularity.floor(request.getTimestamp()));
+                aggregates.computeIfAbsent(key, k -> new Aggregate()).add(request.getIp());
+            }
+        }
+
+        saveBuckets(aggregates);
+
+        long rolledUpId = requests.getLast().getId();
+        rollupRepository.updateRolledUpId(rolledUpId);
+        log.debug("Агрегированы посещения с id по {}: {} записей, {} интервалов.",
+                rolledUpId, requests.size(), aggregates.size());
+        return true;
+    }
+
+    // Скетчи объединяются в памяти: строку состояния агрегации держит только этот экземпляр,
+    // а количество посещений прибавляется в самом запросе сохранения
+    private void saveBuckets(Map<RollupRepository.BucketKey, Aggregate> aggregates) {
+        Map<RollupRepository.BucketKey, byte[]> storedSketches = rollupRepository.findSketches(aggregates.keySet());
+        Map<RollupRepository.BucketKey, RollupRepository.Bucket> buckets = new HashMap<>();
+        aggregates.forEach((key, aggregate) -> {
+            byte[] storedSketch = storedSketches.get(key);
+            HyperLogLog ipSketch = storedSketch == null ? new HyperLogLog() : HyperLogLog.fromBytes(storedSketch);
+            aggregate.ips.forEach(ipSketch::add);
+            buckets.put(key, new RollupRepository.Bucket(aggregate.hits, ipSketch.toBytes()));
+        });
+        rollupRepository.upsertBuckets(buckets);
+    }
+
+    // Скетч строится только при сохранении интервала, чтобы не держать в памяти регистры для каждого интервала
+    private static class Aggregate {
+        private long hits;
+        private final Set<String> ips = new HashSet<>();
+
+        void add(String ip) {
+            hits++;
+            ips.add(ip);
+        }
+    }
+
+}
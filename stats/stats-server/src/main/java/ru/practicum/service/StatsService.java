@@ -10,5 +10,12 @@ import java.util.List;
 public interface StatsService {
     RequestDto addRequest(RequestCreateDto requestCreateDto);
 
-    List<RequestOutputDto> getStatsRequest(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+    // Пакетное сохранение посещений, возвращает количество сохранённых записей
+    int addRequests(List<RequestCreateDto> requestCreateDtos);
+
+    List<RequestOutputDto> getStatsRequest(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                           Boolean exact);
+
+    // Относительная погрешность приблизительного подсчёта уникальных посещений
+    double getUniqueRelativeError();
 }
@@ -3,16 +3,26 @@ package ru.practicum.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.RequestCreateDto;
 import ru.practicum.RequestDto;
 import ru.practicum.RequestOutputDto;
 import ru.practicum.mapper.StatsRequestMapper;
+import ru.practicum.model.Granularity;
 import ru.practicum.model.Request;
+import ru.practicum.model.RollupRange;
+import ru.practicum.model.StatsKey;
+import ru.practicum.repository.RequestBatchRepository;
+import ru.practicum.repository.RollupRepository;
 import ru.practicum.repository.StatsRepository;
+import ru.practicum.sketch.HyperLogLog;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -20,6 +30,8 @@ import java.util.List;
 public class StatsServiceImpl implements StatsService {
 
     private final StatsRepository repository;
+    private final RollupRepository rollupRepository;
+    private final RequestBatchRepository batchRepository;
 
     @Override
     @Transactional
@@ -29,22 +41,99 @@ public class StatsServiceImpl implements StatsService {
     }
 
     @Override
+    @Transactional
+    public int addRequests(List<RequestCreateDto> requestCreateDtos) {
+        List<Request> requests = requestCreateDtos.stream()
+                .map(StatsRequestMapper::toRequestFromCreate)
+                .toList();
+        batchRepository.insertAll(requests);
+        return requests.size();
+    }
+
+    // Агрегаты и сырые записи читаются из одного снимка, чтобы параллельная агрегация не учла посещения дважды
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<RequestOutputDto> getStatsRequest(LocalDateTime start,
                                                   LocalDateTime end,
                                                   List<String> uris,
-                                                  Boolean unique) {
+                                                  Boolean unique,
+                                                  Boolean exact) {
         if (unique) {
+            if (!exact) {
+                return getApproximateUniqueStats(start, end, uris);
+            }
             if (uris == null || uris.isEmpty()) {
                 return repository.getUniqueRequestsByPeriod(start, end);
             } else {
                 return repository.qetUniqueRequestByPeriodWithUris(start, end, uris);
             }
         } else {
-            if (uris == null || uris.isEmpty()) {
-                return repository.getAllRequestsByPeriod(start, end);
-            } else {
-                return repository.qetRequestByPeriodWithUris(start, end, uris);
-            }
+            return getRolledUpStats(start, end, uris);
+        }
+    }
+
+    @Override
+    public double getUniqueRelativeError() {
+        return HyperLogLog.standardError(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    // Целые минуты, часы и сутки периода читаются из агрегатов, сырые записи - только для краёв периода
+    // и для посещений, которые ещё не попали в агрегаты
+    private List<RequestOutputDto> getRolledUpStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        RolledUpPeriod period = getRolledUpPeriod(start, end);
+        List<RequestOutputDto> notRolledUp;
+        if (uris == null || uris.isEmpty()) {
+            notRolledUp = repository.getNotRolledUpRequestsByPeriod(start, end,
+                    period.from(), period.to(), period.rolledUpId());
+        } else {
+            notRolledUp = repository.qetNotRolledUpRequestByPeriodWithUris(start, end, uris,
+                    period.from(), period.to(), period.rolledUpId());
         }
+
+        Map<StatsKey, Long> hits = new HashMap<>();
+        for (RequestOutputDto stats : notRolledUp) {
+            hits.merge(new StatsKey(stats.getApp(), stats.getUri()), stats.getHits(), Long::sum);
+        }
+        for (RequestOutputDto stats : rollupRepository.getHits(period.ranges(), uris)) {
+            hits.merge(new StatsKey(stats.getApp(), stats.getUri()), stats.getHits(), Long::sum);
+        }
+
+        return toSortedStats(hits);
+    }
+
+    // Приблизительное количество уникальных ip: объединение скетчей HyperLogLog из агрегатов
+    // и ip сырых записей, которые в агрегаты не попали
+    private List<RequestOutputDto> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        RolledUpPeriod period = getRolledUpPeriod(start, end);
+        Map<StatsKey, HyperLogLog> sketches = new HashMap<>();
+        rollupRepository.mergeSketches(period.ranges(), uris, sketches);
+        rollupRepository.addNotRolledUpIps(start, end, uris, period.from(), period.to(), period.rolledUpId(), sketches);
+
+        Map<StatsKey, Long> hits = new HashMap<>();
+        sketches.forEach((key, sketch) -> hits.put(key, sketch.estimate()));
+        return toSortedStats(hits);
+    }
+
+    private RolledUpPeriod getRolledUpPeriod(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = Granularity.MINUTE.ceil(start);
+        LocalDateTime to = Granularity.MINUTE.floor(end);
+        List<RollupRange> ranges = RollupRange.cover(from, to);
+        if (ranges.isEmpty()) {
+            from = start;
+            to = start;
+        }
+        return new RolledUpPeriod(from, to, ranges, rollupRepository.getRolledUpId());
+    }
+
+    private List<RequestOutputDto> toSortedStats(Map<StatsKey, Long> hits) {
+        return hits.entrySet()
+                .stream()
+                .map(entry -> new RequestOutputDto(entry.getKey().app(), entry.getKey().uri(), entry.getValue()))
+                .sorted(Comparator.comparing(RequestOutputDto::getHits).reversed())
+                .toList();
+    }
+
+    // Часть периода [from, to), которая читается из агрегатов, и последний учтённый в них id
+    private record RolledUpPeriod(LocalDateTime from, LocalDateTime to, List<RollupRange> ranges, long rolledUpId) {
     }
 }
@@ -0,0 +1,45 @@
+-- public.requests definition
+
+-- Drop table
+
+-- DROP TABLE requests;
+
+-- Таблица секционирована по time_stamp: запросы за период читают только нужные секции,
+-- а устаревшие данные удаляются целыми секциями (см. PartitionService).
+-- Секции создаются заранее по расписанию, requests_default принимает записи вне созданных секций.
+-- Если requests уже создана прежней версией без секционирования, она остаётся как есть:
+-- секции к ней не добавляются, а PartitionService пропускает обслуживание с предупреждением.
+-- Тела блоков записаны в одинарных кавычках, так как скрипты инициализации Spring не разбирают $$.
+
+DO '
+BEGIN
+    IF to_regclass(''requests'') IS NULL THEN
+        CREATE SEQUENCE IF NOT EXISTS requests_id_seq;
+        CREATE TABLE requests (
+            id int8 DEFAULT nextval(''requests_id_seq'') NOT NULL,
+            app varchar(150) NOT NULL,
+            uri varchar(250) NOT NULL,
+            ip varchar(150) NOT NULL,
+            time_stamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+            CONSTRAINT requests_pk PRIMARY KEY (id, time_stamp)
+        ) PARTITION BY RANGE (time_stamp);
+        ALTER SEQUENCE requests_id_seq OWNED BY requests.id;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = ''requests''::regclass) THEN
+        CREATE TABLE IF NOT EXISTS requests_default PARTITION OF requests DEFAULT;
+    END IF;
+END';
+
+-- Индексы под запросы статистики: по списку uri за период и за период без фильтра по uri.
+-- INCLUDE позволяет отвечать на запросы только по индексу, без чтения строк таблицы.
+CREATE INDEX IF NOT EXISTS requests_uri_time_idx ON requests (uri, time_stamp) INCLUDE (app, ip);
+CREATE INDEX IF NOT EXISTS requests_time_idx ON requests (time_stamp) INCLUDE (app, uri, ip);
+
+-- Column comments
+
+COMMENT ON COLUMN requests.id IS 'Идентификатор записи';
+COMMENT ON COLUMN requests.app IS 'Идентификатор сервиса для которого записывается информация';
+COMMENT ON COLUMN requests.uri IS 'URI для которого был осуществлен запрос';
+COMMENT ON COLUMN requests.ip IS 'IP-адрес пользователя, осуществившего запрос';
+COMMENT ON COLUMN requests.time_stamp IS 'Дата и время, когда был совершен запрос к эндпоинту (в формате yyyy-MM-dd HH:mm:ss)';
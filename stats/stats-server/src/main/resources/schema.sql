@@ -1,22 +1,50 @@
--- public.requests definition
+-- public.hits_rollup definition
 
 -- Drop table
 
--- DROP TABLE requests;
+-- DROP TABLE hits_rollup;
 
-CREATE TABLE IF NOT EXISTS requests (
-	id int8 GENERATED BY DEFAULT AS IDENTITY NOT NULL, -- Идентификатор записи
-	app varchar(150) NOT NULL, -- Идентификатор сервиса для которого записывается информация
-	uri varchar(250) NOT NULL, -- URI для которого был осуществлен запрос
-	ip varchar(150) NOT NULL, -- IP-адрес пользователя, осуществившего запрос
-	time_stamp TIMESTAMP WITHOUT TIME ZONE NOT NULL, -- Дата и время, когда был совершен запрос к эндпоинту (в формате "yyyy-MM-dd HH:mm:ss")
-	CONSTRAINT requests_pk PRIMARY KEY (id)
+CREATE TABLE IF NOT EXISTS hits_rollup (
+	granularity varchar(10) NOT NULL, -- Размер интервала агрегации: MINUTE, HOUR, DAY
+	app varchar(150) NOT NULL, -- Идентификатор сервиса
+	uri varchar(250) NOT NULL, -- URI, для которого были осуществлены запросы
+	bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL, -- Начало интервала
+	hits int8 NOT NULL, -- Количество посещений за интервал
+	ip_sketch bytea NOT NULL, -- Скетч HyperLogLog уникальных IP-адресов за интервал
+	CONSTRAINT hits_rollup_pk PRIMARY KEY (granularity, uri, bucket_start, app)
 );
 
+CREATE INDEX IF NOT EXISTS hits_rollup_bucket_idx ON hits_rollup (granularity, bucket_start);
+
+-- Column comments
+
+COMMENT ON COLUMN hits_rollup.granularity IS 'Размер интервала агрегации: MINUTE, HOUR, DAY';
+COMMENT ON COLUMN hits_rollup.app IS 'Идентификатор сервиса';
+COMMENT ON COLUMN hits_rollup.uri IS 'URI, для которого были осуществлены запросы';
+COMMENT ON COLUMN hits_rollup.bucket_start IS 'Начало интервала';
+COMMENT ON COLUMN hits_rollup.hits IS 'Количество посещений за интервал';
+COMMENT ON COLUMN hits_rollup.ip_sketch IS 'Скетч HyperLogLog уникальных IP-адресов за интервал';
+
+
+-- public.rollup_state definition
+
+-- Drop table
+
+-- DROP TABLE rollup_state;
+
+CREATE TABLE IF NOT EXISTS rollup_state (
+	id int4 NOT NULL, -- Идентификатор записи (всегда 1)
+	rolled_up_id int8 NOT NULL, -- Записи requests с id не больше этого значения учтены в hits_rollup
+	seen_id int8 NOT NULL, -- Максимальный id requests на момент прошлого запуска агрегации
+	seen_xmax int8 DEFAULT 0 NOT NULL, -- Граница номеров транзакций снимка, в котором получен seen_id
+	CONSTRAINT rollup_state_pk PRIMARY KEY (id)
+);
+
+INSERT INTO rollup_state (id, rolled_up_id, seen_id)
+SELECT 1, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM rollup_state WHERE id = 1);
+
 -- Column comments
 
-COMMENT ON COLUMN requests.id IS 'Идентификатор записи';
-COMMENT ON COLUMN requests.app IS 'Идентификатор сервиса для которого записывается информация';
-COMMENT ON COLUMN requests.uri IS 'URI для которого был осуществлен запрос';
-COMMENT ON COLUMN requests.ip IS 'IP-адрес пользователя, осуществившего запрос';
-COMMENT ON COLUMN requests.time_stamp IS 'Дата и время, когда был совершен запрос к эндпоинту (в формате yyyy-MM-dd HH:mm:ss)';
\ No newline at end of file
+COMMENT ON COLUMN rollup_state.id IS 'Идентификатор записи (всегда 1)';
+COMMENT ON COLUMN rollup_state.rolled_up_id IS 'Записи requests с id не больше этого значения учтены в hits_rollup';
+COMMENT ON COLUMN rollup_state.seen_id IS 'Максимальный id requests на момент прошлого запуска агрегации';
\ No newline at end of file
@@ -0,0 +1,185 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.practicum.StatsServer;
+import ru.practicum.model.Granularity;
+import ru.practicum.model.RollupRange;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запросы чтения статистики к requests и hits_rollup используют индексы, а не полный просмотр таблицы.
+// Проверяется SQL, который готовят сами методы репозиториев: он перехватывается на уровне соединения
+// и передаётся в EXPLAIN с настройками планировщика по умолчанию
+@SpringBootTest(classes = StatsServer.class)
+@Import(QueryPlanTest.StatementCapture.class)
+class QueryPlanTest {
+
+    private static final List<String> URIS = List.of("/events", "/events/1");
+
+    @Autowired
+    private StatsRepository statsRepository;
+
+    @Autowired
+    private RollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void statsQueriesUseIndexes() {
+        assertEquals(List.of(), findFullScans());
+    }
+
+    @Test
+    void fullScanIsFoundWithoutPeriodIndex() {
+        jdbcTemplate.execute("DROP INDEX requests_time_idx");
+        try {
+            assertTrue(findFullScans().contains("getUniqueRequestsByPeriod"));
+        } finally {
+            jdbcTemplate.execute("CREATE INDEX requests_time_idx ON requests (time_stamp)");
+        }
+    }
+
+    // Имена методов, хотя бы один запрос которых выполняется полным просмотром таблицы
+    private List<String> findFullScans() {
+        List<String> fullScans = new ArrayList<>();
+        getStatements().forEach((name, statements) -> {
+            assertFalse(statements.isEmpty(), name);
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    fullScans.add(name);
+                    break;
+                }
+            }
+        });
+        return fullScans;
+    }
+
+    // Запросы методов чтения статистики с параметрами за последние сутки
+    private Map<String, List<String>> getStatements() {
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime start = end.minusDays(1).minusSeconds(30);
+        LocalDateTime from = Granularity.MINUTE.ceil(start);
+        List<RollupRange> ranges = RollupRange.cover(from, end);
+        RollupRepository.BucketKey key = new RollupRepository.BucketKey(Granularity.HOUR, "ewm-main-service",
+                URIS.getFirst(), Granularity.HOUR.floor(end));
+
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        statements.put("getNotRolledUpRequestsByPeriod", StatementCapture.capture(() ->
+                statsRepository.getNotRolledUpRequestsByPeriod(start, end, from, end, 0)));
+        statements.put("getUniqueRequestsByPeriod", StatementCapture.capture(() ->
+                statsRepository.getUniqueRequestsByPeriod(start, end)));
+        statements.put("qetNotRolledUpRequestByPeriodWithUris", StatementCapture.capture(() ->
+                statsRepository.qetNotRolledUpRequestByPeriodWithUris(start, end, URIS, from, end, 0)));
+        statements.put("qetUniqueRequestByPeriodWithUris", StatementCapture.capture(() ->
+                statsRepository.qetUniqueRequestByPeriodWithUris(start, end, URIS)));
+        statements.put("findRequestsAfter", StatementCapture.capture(() ->
+                rollupRepository.findRequestsAfter(0, 1000, 100)));
+        statements.put("findSketches", StatementCapture.capture(() ->
+                rollupRepository.findSketches(Set.of(key))));
+        statements.put("getHits", StatementCapture.capture(() ->
+                rollupRepository.getHits(ranges, URIS)));
+        statements.put("mergeSketches", StatementCapture.capture(() ->
+                rollupRepository.mergeSketches(ranges, URIS, new HashMap<>())));
+        statements.put("addNotRolledUpIps", StatementCapture.capture(() ->
+                rollupRepository.addNotRolledUpIps(start, end, URIS, from, end, 0, new HashMap<>())));
+        return statements;
+    }
+
+    // Параметры запроса не подставляются: H2 строит план и для запроса с неустановленными параметрами
+    private String explain(String sql) {
+        return jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql), rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    // Запоминает SQL, который готовит текущий поток, пока выполняется capture.
+    // Фоновая агрегация работает в своих потоках и в перехваченные запросы не попадает
+    @TestConfiguration
+    static class StatementCapture {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        static List<String> capture(Runnable call) {
+            List<String> statements = new ArrayList<>();
+            STATEMENTS.set(statements);
+            try {
+                call.run();
+            } finally {
+                STATEMENTS.remove();
+            }
+            return statements;
+        }
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+
+        private static class CapturingDataSource extends DelegatingDataSource {
+
+            CapturingDataSource(DataSource dataSource) {
+                super(dataSource);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return capturing(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return capturing(super.getConnection(username, password));
+            }
+
+            private Connection capturing(Connection connection) {
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            List<String> statements = STATEMENTS.get();
+                            if (statements != null && method.getName().equals("prepareStatement")) {
+                                statements.add((String) args[0]);
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        }
+    }
+}
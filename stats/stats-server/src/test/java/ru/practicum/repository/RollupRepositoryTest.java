@@ -0,0 +1,49 @@
+package ru.practicum.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.StatsServer;
+import ru.practicum.model.Granularity;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Удаление устаревших агрегатов по границе хранения
+@SpringBootTest(classes = StatsServer.class)
+class RollupRepositoryTest {
+
+    @Autowired
+    private RollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deleteBucketsBeforeKeepsBucketsFromThreshold() {
+        String uri = "/events/" + UUID.randomUUID();
+        LocalDateTime threshold = LocalDateTime.of(2020, 6, 1, 0, 0);
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add("192.168.0.1");
+        RollupRepository.Bucket bucket = new RollupRepository.Bucket(1, sketch.toBytes());
+        rollupRepository.upsertBuckets(Map.of(
+                new RollupRepository.BucketKey(Granularity.MINUTE, "ewm", uri, threshold.minusMinutes(1)), bucket,
+                new RollupRepository.BucketKey(Granularity.HOUR, "ewm", uri, threshold.minusHours(1)), bucket,
+                new RollupRepository.BucketKey(Granularity.DAY, "ewm", uri, threshold.minusDays(1)), bucket,
+                new RollupRepository.BucketKey(Granularity.MINUTE, "ewm", uri, threshold), bucket,
+                new RollupRepository.BucketKey(Granularity.DAY, "ewm", uri, threshold), bucket));
+
+        rollupRepository.deleteBucketsBefore(threshold);
+
+        List<Timestamp> remaining = jdbcTemplate.queryForList(
+                "SELECT bucket_start FROM hits_rollup WHERE uri = ?", Timestamp.class, uri);
+        assertEquals(List.of(Timestamp.valueOf(threshold), Timestamp.valueOf(threshold)), remaining);
+    }
+}
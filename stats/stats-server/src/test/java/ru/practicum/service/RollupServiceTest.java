@@ -0,0 +1,69 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.RequestCreateDto;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.StatsServer;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Статистика по агрегатам совпадает со статистикой по сырым записям: количество посещений - точно,
+// приблизительное количество уникальных ip - в пределах погрешности скетча
+@SpringBootTest(classes = StatsServer.class)
+class RollupServiceTest {
+
+    private static final int HITS = 6_000;
+    private static final int IPS = 2_500;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rolledUpStatsMatchExactStats() {
+        String uri = "/events/" + UUID.randomUUID();
+        LocalDateTime first = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.SECONDS);
+        List<RequestCreateDto> hits = new ArrayList<>();
+        for (int i = 0; i < HITS; i++) {
+            hits.add(new RequestCreateDto("ewm-main-service", uri, "10.0." + (i % IPS / 256) + "." + (i % IPS % 256),
+                    first.plusSeconds(i)));
+        }
+        statsService.addRequests(hits);
+
+        // Первый запуск только запоминает видимые записи, второй их агрегирует
+        rollupService.rollUp();
+        rollupService.rollUp();
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_rollup WHERE uri = ?",
+                Integer.class, uri) > 0);
+
+        LocalDateTime start = first.minusMinutes(30).plusSeconds(15);
+        LocalDateTime end = LocalDateTime.now();
+        assertEquals(HITS, getHits(start, end, uri, false, true));
+        long exact = getHits(start, end, uri, true, true);
+        long approximate = getHits(start, end, uri, true, false);
+        assertEquals(IPS, exact);
+        assertTrue(Math.abs(approximate - exact) <= exact * 3 * statsService.getUniqueRelativeError(),
+                "Приблизительная оценка " + approximate + " при точном значении " + exact);
+    }
+
+    private long getHits(LocalDateTime start, LocalDateTime end, String uri, boolean unique, boolean exact) {
+        List<RequestOutputDto> stats = statsService.getStatsRequest(start, end, List.of(uri), unique, exact);
+        assertEquals(1, stats.size());
+        return stats.getFirst().getHits();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Точность оценки, объединение и сериализация скетча уникальных ip
+class HyperLogLogTest {
+
+    // Допустимое отклонение оценки - три стандартные погрешности
+    private static final double ERROR_BOUND = 3 * HyperLogLog.standardError(HyperLogLog.DEFAULT_PRECISION);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000})
+    void estimateIsWithinErrorBound(int cardinality) {
+        HyperLogLog sketch = sketchOf(0, cardinality);
+        // Повторные значения не меняют оценку
+        for (int i = 0; i < Math.min(cardinality, 1_000); i++) {
+            sketch.add(ip(i));
+        }
+
+        assertWithinErrorBound(cardinality, sketch.estimate());
+    }
+
+    @Test
+    void mergeOfOverlappingSetsEstimatesUnion() {
+        HyperLogLog first = sketchOf(0, 60_000);
+        HyperLogLog second = sketchOf(40_000, 100_000);
+
+        first.merge(second);
+
+        assertWithinErrorBound(100_000, first.estimate());
+        assertArrayEquals(sketchOf(0, 100_000).toBytes(), first.toBytes());
+    }
+
+    // Разреженный формат хранит только непустые регистры и сменяется плотным, когда перестаёт быть компактнее
+    @Test
+    void toBytesSwitchesFromSparseToDense() {
+        int registers = 1 << HyperLogLog.DEFAULT_PRECISION;
+
+        byte[] sparse = sketchOf(0, 100).toBytes();
+        byte[] dense = sketchOf(0, 100_000).toBytes();
+
+        assertEquals(0, sparse[0]);
+        assertTrue(sparse.length < 2 + registers);
+        assertEquals(1, dense[0]);
+        assertEquals(2 + registers, dense.length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 100, 100_000})
+    void fromBytesRestoresSketch(int cardinality) {
+        HyperLogLog sketch = sketchOf(0, cardinality);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+    }
+
+    private static void assertWithinErrorBound(long expected, long estimate) {
+        assertTrue(Math.abs(estimate - expected) <= Math.max(1, expected * ERROR_BOUND),
+                "Оценка " + estimate + " для " + expected + " уникальных значений");
+    }
+
+    // Скетч ip-адресов с номерами [from, to)
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(ip(i));
+        }
+        return sketch;
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}